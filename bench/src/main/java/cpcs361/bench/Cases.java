@@ -0,0 +1,43 @@
+package cpcs361.bench;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.function.LongSupplier;
+
+/**
+ * Cases
+ * -----
+ * Bridge to SchedulerBenchmark.newCase(). The simulator lives in the
+ * default package, which a named package cannot import (and JMH refuses
+ * benchmarks in the default package), so the factory is looked up once by
+ * name. Only fixture setup goes through the handle; the measured call is
+ * the returned LongSupplier, one invocation = the case's n ops.
+ */
+final class Cases {
+
+    private static final MethodHandle NEW_CASE;
+
+    static {
+        try {
+            Class<?> harness = Class.forName("SchedulerBenchmark");
+            NEW_CASE = MethodHandles.publicLookup().findStatic(harness, "newCase",
+                    MethodType.methodType(LongSupplier.class, String.class));
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private Cases() { }
+
+    // e.g. "sim/DRR/heavytail/100000", "drr/slice/1000"
+    static LongSupplier newCase(String name) {
+        try {
+            return (LongSupplier) NEW_CASE.invokeExact(name);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new IllegalStateException(t);
+        }
+    }
+}
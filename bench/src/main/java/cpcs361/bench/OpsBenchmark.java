@@ -0,0 +1,82 @@
+package cpcs361.bench;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * OpsBenchmark
+ * ------------
+ * The component cases of SchedulerBenchmark at n = 1k / 100k / 1M:
+ *   queue/hq1    Queue.enqueue + dequeue on HQ1
+ *   drr/slice    DRoundRobinScheduler.computeTimeSlice with n READY jobs
+ *   admit/pack   BatchPacker.pack, MAX_BATCH jobs at a time
+ * One op = one job through the operation; the jobs are built once per trial.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OpsBenchmark {
+
+    @State(Scope.Benchmark)
+    public abstract static class Op {
+        @Param({"queue/hq1", "drr/slice", "admit/pack"})
+        public String op;
+
+        LongSupplier run;
+
+        abstract int n();
+
+        @Setup
+        public void setup() {
+            run = Cases.newCase(op + "/" + n());
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class N1k extends Op {
+        @Override int n() { return 1_000; }
+    }
+
+    @State(Scope.Benchmark)
+    public static class N100k extends Op {
+        @Override int n() { return 100_000; }
+    }
+
+    @State(Scope.Benchmark)
+    public static class N1m extends Op {
+        @Override int n() { return 1_000_000; }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(1_000)
+    public long ops1k(N1k s) {
+        return s.run.getAsLong();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(100_000)
+    public long ops100k(N100k s) {
+        return s.run.getAsLong();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(1_000_000)
+    public long ops1m(N1m s) {
+        return s.run.getAsLong();
+    }
+}
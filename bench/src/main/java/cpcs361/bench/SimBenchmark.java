@@ -0,0 +1,86 @@
+package cpcs361.bench;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * SimBenchmark
+ * ------------
+ * End-to-end simulation through PrManager: the sim/<scheduler>/<workload>/<jobs>
+ * cases of SchedulerBenchmark. One op = one simulated job, so ops/s is
+ * simulated jobs/s and, with -prof gc, gc.alloc.rate.norm is bytes per job.
+ * Workloads are generated once per trial (seed 42), outside the measurement.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SimBenchmark {
+
+    @State(Scope.Benchmark)
+    public abstract static class Sim {
+        @Param({"FCFS", "SRR", "DRR", "DRR+log", "PRIO", "MLFQ", "SJF", "SRTF", "EDF", "FAIR"})
+        public String scheduler;
+
+        @Param({"uniform", "heavytail", "memstarved", "devstarved", "longlight"})
+        public String workload;
+
+        LongSupplier run;
+
+        abstract int jobs();
+
+        @Setup
+        public void setup() {
+            run = Cases.newCase("sim/" + scheduler + "/" + workload + "/" + jobs());
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Jobs1k extends Sim {
+        @Override int jobs() { return 1_000; }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Jobs100k extends Sim {
+        @Override int jobs() { return 100_000; }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Jobs1m extends Sim {
+        @Override int jobs() { return 1_000_000; }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(1_000)
+    public long jobs1k(Jobs1k s) {
+        return s.run.getAsLong();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(100_000)
+    public long jobs100k(Jobs100k s) {
+        return s.run.getAsLong();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(1_000_000)
+    @Warmup(iterations = 1, time = 1)
+    @Measurement(iterations = 3, time = 1)
+    public long jobs1m(Jobs1m s) {
+        return s.run.getAsLong();
+    }
+}
@@ -0,0 +1,163 @@
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * AtomicKerServices
+ * -----------------
+ * Lock-free KerServices (--kernel=atomic), the counter memory model of
+ * OtherKerServices without its monitor.
+ *
+ * memInUse and devsInUse are packed into one 64-bit word
+ *     [ memInUse : 48 bits | devsInUse : 16 bits ]
+ * and updated with compare-and-set, so allocate()/release() of a Process
+ * change both counters in one atomic step: all-or-nothing, never over-committed,
+ * and no monitor for producer threads or cores to contend on. The word is
+ * the only copy of the counters.
+ *
+ * Capacity limits: memorySize < 2^48, noDevs < 2^16. No placement model.
+ */
+public class AtomicKerServices implements KerServices {
+
+    private static final int  DEV_BITS = 16;
+    private static final long DEV_MASK = (1L << DEV_BITS) - 1;
+    private static final long MAX_MEM  = (1L << (64 - DEV_BITS)) - 1;   // unsigned high 48 bits
+
+    private final long memorySize;
+    private final int noDevs;
+    private final AtomicLong word = new AtomicLong(0); // (memInUse << 16) | devsInUse
+
+    public AtomicKerServices(long memorySize, int noDevs) {
+        this.memorySize = Math.max(0, memorySize);
+        this.noDevs = Math.max(0, noDevs);
+        if (this.memorySize > MAX_MEM || this.noDevs > DEV_MASK) {
+            throw new IllegalArgumentException("AtomicKerServices supports mem <= " + MAX_MEM
+                    + " and devices <= " + DEV_MASK);
+        }
+    }
+
+    private static long mem(long w)  { return w >>> DEV_BITS; }
+    private static int  devs(long w) { return (int) (w & DEV_MASK); }
+    private static long pack(long mem, int devs) { return (mem << DEV_BITS) | devs; }
+
+    // ===== Memory =====
+    @Override
+    public boolean allocateMemory(long amount) {
+        return tryAdd(amount, 0);
+    }
+
+    @Override
+    public void deallocateMemory(long amount) {
+        if (amount <= 0) return;
+        subtract(amount, 0);
+    }
+
+    // ===== Devices =====
+    @Override
+    public boolean reserveDevices(int n) {
+        if (n < 0) return false;         // invalid
+        if (n == 0) return true;         // no devices needed
+        return tryAddDevices(n);
+    }
+
+    @Override
+    public void releaseDevices(int n) {
+        if (n <= 0) return;
+        subtract(0, n);
+    }
+
+    // ===== Atomic convenience for a Process =====
+    @Override
+    public boolean allocate(Process p) {
+        int dev = p.getDevReq();
+        if (dev < 0) return false;
+        return tryAdd(p.getMemoryReq(), dev);
+    }
+
+    @Override
+    public void release(Process p) {
+        subtract(Math.max(0, p.getMemoryReq()), Math.max(0, p.getDevReq()));
+    }
+
+    @Override
+    public boolean canEverFit(Process p) {
+        return p.getMemoryReq() <= memorySize && p.getDevReq() <= noDevs;
+    }
+
+    @Override
+    public MemoryAllocator getAllocator() { return null; }
+
+    // ===== Introspection (one consistent read of both counters) =====
+    @Override
+    public long getFreeMemory() { return memorySize - mem(word.get()); }
+    @Override
+    public int getFreeDevices() { return noDevs - devs(word.get()); }
+    @Override
+    public long getMemInUse()   { return mem(word.get()); }
+    @Override
+    public int getDevsInUse()   { return devs(word.get()); }
+    @Override
+    public long getMemorySize() { return memorySize; }
+    @Override
+    public int getNoDevs()      { return noDevs; }
+
+    // ===== Checkpoint =====
+
+    @Override
+    public void writeTo(DataOutput out) throws IOException {
+        long w = word.get();
+        out.writeByte(KIND_ATOMIC);
+        out.writeLong(memorySize);
+        out.writeInt(noDevs);
+        out.writeLong(mem(w));
+        out.writeInt(devs(w));
+    }
+
+    // after the KIND byte (see KerServices.readFrom)
+    static AtomicKerServices readFrom(DataInput in) throws IOException {
+        AtomicKerServices ks = new AtomicKerServices(in.readLong(), in.readInt());
+        ks.word.set(pack(in.readLong(), in.readInt()));
+        return ks;
+    }
+
+    @Override
+    public String toString() {
+        long w = word.get();
+        return "AtomicKerServices{mem=" + mem(w) + "/" + memorySize +
+                ", devs=" + devs(w) + "/" + noDevs + "}";
+    }
+
+    // ===== CAS loops =====
+
+    // memory must be > 0 (same rule as OtherKerServices.allocateMemory)
+    private boolean tryAdd(long mem, int dev) {
+        if (mem <= 0) return false;
+        while (true) {
+            long w = word.get();
+            long m = mem(w) + mem;
+            int d = devs(w) + dev;
+            if (m > memorySize || d > noDevs) return false;
+            if (word.compareAndSet(w, pack(m, d))) return true;
+        }
+    }
+
+    private boolean tryAddDevices(int dev) {
+        while (true) {
+            long w = word.get();
+            int d = devs(w) + dev;
+            if (d > noDevs) return false;
+            if (word.compareAndSet(w, pack(mem(w), d))) return true;
+        }
+    }
+
+    // clamps at zero like the synchronized version
+    private void subtract(long mem, int dev) {
+        while (true) {
+            long w = word.get();
+            long m = Math.max(0, mem(w) - mem);
+            int d = Math.max(0, devs(w) - dev);
+            if (word.compareAndSet(w, pack(m, d))) return;
+        }
+    }
+}
@@ -0,0 +1,165 @@
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * BatchPacker
+ * -----------
+ * Chooses which jobs of one admission batch go in, treating free memory
+ * and free devices as a single two-dimensional bin (used by PrManager's
+ * batch-window admission).
+ *
+ * Heuristic: first-fit over four orderings of the batch, keeping the plan
+ * that fills the bin best (used memory / free memory + used devices /
+ * free devices, ties to more jobs, then to the earlier ordering):
+ *   0) arrival order       (what the greedy path would admit)
+ *   1) combined size desc  (memory share + device share, FFD style)
+ *   2) memory desc
+ *   3) devices desc, then memory desc
+ * Arrival order is always a candidate, so a batch is never packed worse
+ * than greedy admission would have packed it. Each decision sorts at most
+ * MAX_BATCH primitive keys: O(n log n) with n <= MAX_BATCH.
+ *
+ * Running totals compare the chosen plans with the greedy ones.
+ */
+public class BatchPacker {
+
+    // Jobs packed per decision; the rest of a larger batch is admitted greedily
+    public static final int MAX_BATCH = 4096;
+
+    private static final int CANDIDATES = 4;
+    private static final int IDX_BITS = 16;          // MAX_BATCH <= 1 << IDX_BITS
+    private static final double KEY_SCALE = (double) (1L << 46);
+
+    // per-batch scratch, reused across decisions
+    private final long[] mem = new long[MAX_BATCH];
+    private final int[] devs = new int[MAX_BATCH];
+    private final long[] keys = new long[MAX_BATCH];
+    private final double[] size = new double[MAX_BATCH];
+    private final boolean[] take = new boolean[MAX_BATCH];
+    private final boolean[] trial = new boolean[MAX_BATCH];
+
+    // totals over all batches: planned admissions, chosen vs arrival-order greedy
+    private long batches = 0, jobs = 0, largest = 0;
+    private long packedJobs = 0, packedMem = 0, packedDevs = 0;
+    private long greedyJobs = 0, greedyMem = 0, greedyDevs = 0;
+
+    /**
+     * Plans batch[0..n) against the free resources (n <= MAX_BATCH).
+     * Afterwards taken(i) tells whether batch[i] should be admitted.
+     */
+    public void pack(Process[] batch, int n, long freeMem, int freeDevs) {
+        for (int i = 0; i < n; i++) {
+            mem[i] = batch[i].getMemoryReq();
+            devs[i] = batch[i].getDevReq();
+        }
+
+        double bestScore = -1;
+        long bestJobs = -1, bestMem = 0, bestDevs = 0;
+
+        for (int c = 0; c < CANDIDATES; c++) {
+            if (c > 0) sortKeys(c, n, freeMem, freeDevs);
+
+            Arrays.fill(trial, 0, n, false);
+            long m = 0, k = 0;
+            int d = 0;
+            for (int j = 0; j < n; j++) {
+                // arrival order, or descending key (ties to the earlier arrival)
+                int i = (c == 0) ? j : (int) ((1 << IDX_BITS) - 1 - (keys[n - 1 - j] & ((1 << IDX_BITS) - 1)));
+                if (mem[i] <= freeMem - m && devs[i] <= freeDevs - d) {
+                    trial[i] = true;
+                    m += mem[i];
+                    d += devs[i];
+                    k++;
+                }
+            }
+
+            double score = share(m, freeMem) + share(d, freeDevs);
+            if (c == 0) {
+                greedyJobs += k;
+                greedyMem += m;
+                greedyDevs += d;
+            }
+            if (score > bestScore || (score == bestScore && k > bestJobs)) {
+                bestScore = score;
+                bestJobs = k;
+                bestMem = m;
+                bestDevs = d;
+                System.arraycopy(trial, 0, take, 0, n);
+            }
+        }
+
+        batches++;
+        jobs += n;
+        largest = Math.max(largest, n);
+        packedJobs += bestJobs;
+        packedMem += bestMem;
+        packedDevs += bestDevs;
+    }
+
+    public boolean taken(int i) { return take[i]; }
+
+    // Candidate c's sort keys: scaled size in the high bits, reversed index below
+    private void sortKeys(int c, int n, long freeMem, int freeDevs) {
+        double max = 0;
+        for (int i = 0; i < n; i++) {
+            // anything bigger than the bin counts as "just too big"
+            double m = Math.min(mem[i], freeMem + 1L);
+            double d = Math.min(devs[i], freeDevs + 1);
+            switch (c) {
+                case 1:  size[i] = m / (freeMem + 1.0) + d / (freeDevs + 1.0); break;
+                case 2:  size[i] = m; break;
+                default: size[i] = d + m / (freeMem + 2.0); break;
+            }
+            max = Math.max(max, size[i]);
+        }
+        for (int i = 0; i < n; i++) {
+            long scaled = max > 0 ? (long) (size[i] / max * KEY_SCALE) : 0;
+            keys[i] = (scaled << IDX_BITS) | ((1 << IDX_BITS) - 1 - i);
+        }
+        Arrays.sort(keys, 0, n);
+    }
+
+    private static double share(long used, long free) {
+        return free <= 0 ? 0 : (double) used / free;
+    }
+
+    // ===== report =====
+
+    public long getBatches()    { return batches; }
+    public long getJobs()       { return jobs; }
+    public long getLargest()    { return largest; }
+    public long getPackedJobs() { return packedJobs; }
+    public long getPackedMem()  { return packedMem; }
+    public long getPackedDevs() { return packedDevs; }
+    public long getGreedyJobs() { return greedyJobs; }
+    public long getGreedyMem()  { return greedyMem; }
+    public long getGreedyDevs() { return greedyDevs; }
+
+    // ===== checkpoint =====
+
+    public void writeTo(DataOutput out) throws IOException {
+        out.writeLong(batches);
+        out.writeLong(jobs);
+        out.writeLong(largest);
+        out.writeLong(packedJobs);
+        out.writeLong(packedMem);
+        out.writeLong(packedDevs);
+        out.writeLong(greedyJobs);
+        out.writeLong(greedyMem);
+        out.writeLong(greedyDevs);
+    }
+
+    public void readFrom(DataInput in) throws IOException {
+        batches = in.readLong();
+        jobs = in.readLong();
+        largest = in.readLong();
+        packedJobs = in.readLong();
+        packedMem = in.readLong();
+        packedDevs = in.readLong();
+        greedyJobs = in.readLong();
+        greedyMem = in.readLong();
+        greedyDevs = in.readLong();
+    }
+}
@@ -0,0 +1,162 @@
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedList;
+import java.util.TreeSet;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * BestFitQueueStore
+ * -----------------
+ * Hold-queue store used by the BEST_FIT admission policy.
+ *
+ * Keeps the normal queue order (HQ1: memoryReq asc / arrivalTime / FIFO,
+ * HQ2: FIFO) for peek/poll/snapshot, plus an admission index:
+ * one tree per device count, each ordered by memoryReq. pollBestFit()
+ * answers "largest waiting job that fits in freeMem with at most freeDevs
+ * devices" with one floor lookup per device count, i.e. O(devs * log n).
+ *
+ * A job the caller could not allocate after all (e.g. no hole large
+ * enough under a placement model) keeps its queue position but leaves the
+ * index until the next admission pass (restoreParked()); a job that can
+ * never be allocated (memoryReq <= 0) is never indexed.
+ */
+public class BestFitQueueStore implements QueueStore {
+
+    private static final class Entry {
+        final Process p;
+        final long mem;
+        final long at;
+        final int dev;
+        final long seq;
+        boolean indexed;        // in byDevs
+        boolean queued = true;  // still in order
+
+        Entry(Process p, long seq) {
+            this.p = p;
+            this.mem = p.getMemoryReq();
+            this.at = p.getArrivalTime();
+            this.dev = p.getDevReq();
+            this.seq = seq;
+        }
+
+        Entry(long mem) { // search probe
+            this.p = null;
+            this.mem = mem;
+            this.at = Long.MIN_VALUE;
+            this.dev = 0;
+            this.seq = Long.MIN_VALUE;
+        }
+    }
+
+    // Queue order used for peek/poll/snapshot
+    private static final Comparator<Entry> MEM_ORDER = (a, b) -> {
+        if (a.mem != b.mem) return Long.compare(a.mem, b.mem);
+        if (a.at != b.at) return Long.compare(a.at, b.at);
+        return Long.compare(a.seq, b.seq);
+    };
+    private static final Comparator<Entry> FIFO_ORDER = (a, b) -> Long.compare(a.seq, b.seq);
+
+    // Index order: memoryReq asc, then the OLDEST job is the greatest,
+    // so floor(probe(freeMem)) returns the largest fitting job, earliest first.
+    private static final Comparator<Entry> FIT_ORDER = (a, b) -> {
+        if (a.mem != b.mem) return Long.compare(a.mem, b.mem);
+        if (a.at != b.at) return Long.compare(b.at, a.at);
+        return Long.compare(b.seq, a.seq);
+    };
+
+    private final TreeSet<Entry> order;
+    private final ArrayList<TreeSet<Entry>> byDevs = new ArrayList<>();
+    private final ArrayList<Entry> parked = new ArrayList<>();   // out of the index this pass
+    private long nextSeq = 0;
+
+    // memOrdered = true for HQ1 ordering, false for FIFO (HQ2)
+    public BestFitQueueStore(boolean memOrdered) {
+        this.order = new TreeSet<>(memOrdered ? MEM_ORDER : FIFO_ORDER);
+    }
+
+    @Override
+    public void add(Process p) {
+        Entry e = new Entry(p, nextSeq++);
+        order.add(e);
+        if (e.mem > 0) index(e);
+    }
+
+    private void index(Entry e) {
+        while (byDevs.size() <= e.dev) byDevs.add(new TreeSet<>(FIT_ORDER));
+        byDevs.get(e.dev).add(e);
+        e.indexed = true;
+    }
+
+    private void unindex(Entry e) {
+        if (e.indexed) byDevs.get(e.dev).remove(e);
+        e.indexed = false;
+    }
+
+    @Override
+    public Process poll() {
+        Entry e = order.pollFirst();
+        if (e == null) return null;
+        unindex(e);
+        e.queued = false;
+        return e.p;
+    }
+
+    @Override
+    public Process peek() {
+        return order.isEmpty() ? null : order.first().p;
+    }
+
+    @Override
+    public int size() { return order.size(); }
+
+    @Override
+    public LinkedList<Process> snapshot() {
+        LinkedList<Process> out = new LinkedList<>();
+        for (Entry e : order) out.add(e.p);
+        return out;
+    }
+
+    @Override
+    public void forEach(Consumer<? super Process> action) {
+        for (Entry e : order) action.accept(e.p);
+    }
+
+    /**
+     * Removes and returns the largest (by memoryReq) job with
+     * memoryReq <= freeMem and devReq <= freeDevs that 'admit' accepts;
+     * ties go to the earliest arrival. A candidate 'admit' refuses stays
+     * queued where it was, is parked until restoreParked(), and the search
+     * goes on. Returns null if nothing fits.
+     */
+    public Process pollBestFit(long freeMem, int freeDevs, Predicate<Process> admit) {
+        Entry probe = new Entry(freeMem);
+        while (true) {
+            Entry best = null;
+            int maxDev = Math.min(freeDevs, byDevs.size() - 1);
+            for (int d = 0; d <= maxDev; d++) {
+                Entry c = byDevs.get(d).floor(probe);
+                if (c != null && (best == null || FIT_ORDER.compare(c, best) > 0)) {
+                    best = c;
+                }
+            }
+
+            if (best == null) return null;
+            unindex(best);
+            if (admit.test(best.p)) {
+                order.remove(best);
+                best.queued = false;
+                return best.p;
+            }
+            parked.add(best);
+        }
+    }
+
+    // Puts jobs refused during the last pass back in the index (resources changed)
+    public void restoreParked() {
+        for (Entry e : parked) {
+            if (e.queued) index(e);
+        }
+        parked.clear();
+    }
+}
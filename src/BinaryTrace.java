@@ -0,0 +1,247 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * BinaryTrace
+ * -----------
+ * Compact binary form of the C / A / D input, for traces replayed many
+ * times. Opening one only maps the file; records are read in place
+ * (no parsing, no copying), so startup does not depend on trace length.
+ *
+ * Layout, little-endian:
+ *
+ *   header (64 bytes)
+ *     int   magic        'STRC'
+ *     int   version      2
+ *     int   recordSize   56
+ *     int   reserved
+ *     long  eventCount
+ *     long  start, mem, devs, cores   of the first C record (0 if none)
+ *     long  reserved
+ *
+ *   record (56 bytes)
+ *     int   type         'C', 'A' or 'D' in the low 16 bits, group (A) in the high 16
+ *     int   field 3      devs (A) / cores (C)
+ *     int   field 5      priority (A)
+ *     int   reserved
+ *     long  field 0, 1, 2, 4
+ *     long  field 6      absolute deadline (A), as written in the text
+ *
+ * Every field reads back as the text reader gives it. Version 1 stored
+ * the deadline as an int offset from arrival, clamped to 1..2^31-1, which
+ * changed deadlines at or before arrival and very late ones; such files
+ * are rejected and must be converted again.
+ *
+ * Unknown text lines have no binary form and are dropped by the converter.
+ *
+ * Convert:  java BinaryTrace src/input.txt trace.bin
+ */
+public final class BinaryTrace implements Trace, Closeable {
+
+    public static final int MAGIC = 0x43525453;   // "STRC" read little-endian
+    public static final int VERSION = 2;
+    public static final int HEADER_SIZE = 64;
+    public static final int RECORD_SIZE = 56;
+
+    // records per mapped segment (~1.9 GB, under the 2 GB mapping limit)
+    private static final int SEGMENT_RECORDS = 1 << 25;
+
+    // byte offset of fields 0..6 inside a record, and whether it is a long
+    private static final int[] FIELD_OFFSET = {16, 24, 32, 4, 40, 8, 48};
+    private static final boolean[] FIELD_LONG = {true, true, true, false, true, false, true};
+
+    private final FileChannel ch;
+    private final MappedByteBuffer[] segments;
+    private final int count;
+    private final long[] config = new long[4];
+
+    private BinaryTrace(FileChannel ch) throws IOException {
+        this.ch = ch;
+
+        ByteBuffer h = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        while (h.hasRemaining() && ch.read(h, h.position()) > 0) { }
+        if (h.position() < HEADER_SIZE || h.getInt(0) != MAGIC) {
+            throw new IOException("not a binary trace");
+        }
+        if (h.getInt(4) != VERSION || h.getInt(8) != RECORD_SIZE) {
+            throw new IOException("unsupported binary trace version " + h.getInt(4));
+        }
+
+        long n = h.getLong(16);
+        if (n < 0 || n > Integer.MAX_VALUE
+                || ch.size() < HEADER_SIZE + n * RECORD_SIZE) {
+            throw new IOException("truncated binary trace (" + n + " events in header)");
+        }
+        this.count = (int) n;
+        for (int j = 0; j < 4; j++) config[j] = h.getLong(24 + 8 * j);
+
+        int segs = (count + SEGMENT_RECORDS - 1) / SEGMENT_RECORDS;
+        segments = new MappedByteBuffer[segs];
+        for (int s = 0; s < segs; s++) {
+            long first = (long) s * SEGMENT_RECORDS;
+            long recs = Math.min(SEGMENT_RECORDS, count - first);
+            segments[s] = ch.map(FileChannel.MapMode.READ_ONLY,
+                    HEADER_SIZE + first * RECORD_SIZE, recs * RECORD_SIZE);
+            segments[s].order(ByteOrder.LITTLE_ENDIAN);
+        }
+    }
+
+    public static BinaryTrace open(Path file) throws IOException {
+        FileChannel ch = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            return new BinaryTrace(ch);
+        } catch (IOException | RuntimeException e) {
+            ch.close();
+            throw e;
+        }
+    }
+
+    // true if the file starts with the binary trace magic
+    public static boolean isBinary(Path file) {
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer b = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN);
+            while (b.hasRemaining() && ch.read(b) > 0) { }
+            return b.position() == 4 && b.getInt(0) == MAGIC;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    // ===== Trace =====
+
+    @Override
+    public int size() { return count; }
+
+    // absolute reads only, so concurrent replays can share one instance
+    @Override
+    public char type(int i) {
+        return (char) segment(i).getInt(offset(i));
+    }
+
+    @Override
+    public long field(int i, int j) {
+        MappedByteBuffer b = segment(i);
+        if (j == 7) return b.getInt(offset(i)) >>> 16;
+        int at = offset(i) + FIELD_OFFSET[j];
+        return FIELD_LONG[j] ? b.getLong(at) : b.getInt(at);
+    }
+
+    // first C record from the header: 0=start, 1=mem, 2=devs, 3=cores
+    public long getConfig(int j) { return config[j]; }
+
+    private MappedByteBuffer segment(int i) {
+        return segments[i / SEGMENT_RECORDS];
+    }
+
+    private static int offset(int i) {
+        return (i % SEGMENT_RECORDS) * RECORD_SIZE;
+    }
+
+    @Override
+    public void close() throws IOException {
+        ch.close();
+    }
+
+    // ===== writer / converter =====
+
+    /**
+     * Streams records into a new binary trace file; the header (with the
+     * final count) is written by close(). Memory use is one small buffer.
+     */
+    public static final class Writer implements Closeable {
+        private final FileChannel out;
+        private final ByteBuffer buf = ByteBuffer.allocateDirect(RECORD_SIZE * 4096).order(ByteOrder.LITTLE_ENDIAN);
+        private long n = 0;
+        private long[] firstConfig = null;
+
+        public Writer(Path bin) throws IOException {
+            out = FileChannel.open(bin, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+            out.position(HEADER_SIZE); // header goes in last, once the count is known
+        }
+
+        // f = fields as in Trace (unused slots 0)
+        public void add(char type, long[] f) throws IOException {
+            if (type == 'C' && firstConfig == null) firstConfig = f.clone();
+
+            if (buf.remaining() < RECORD_SIZE) drain();
+            buf.putInt(type | groupBits(f))
+               .putInt((int) f[3])
+               .putInt((int) f[5])
+               .putInt(0)
+               .putLong(f[0]).putLong(f[1]).putLong(f[2]).putLong(f[4])
+               .putLong(f.length > 6 ? f[6] : 0);
+            n++;
+        }
+
+        public long getCount() { return n; }
+
+        // the group as Process.setGroup would keep it from the text reader's int
+        private static int groupBits(long[] f) {
+            if (f.length <= 7) return 0;
+            return Math.max(0, Math.min(Process.MAX_GROUP, (int) f[7])) << 16;
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                drain();
+                ByteBuffer h = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+                h.putInt(MAGIC).putInt(VERSION).putInt(RECORD_SIZE).putInt(0).putLong(n);
+                for (int j = 0; j < 4; j++) h.putLong(firstConfig == null ? 0 : firstConfig[j]);
+                h.putLong(0).flip();
+                while (h.hasRemaining()) out.write(h, h.position());
+            } finally {
+                out.close();
+            }
+        }
+
+        private void drain() throws IOException {
+            buf.flip();
+            while (buf.hasRemaining()) out.write(buf);
+            buf.clear();
+        }
+    }
+
+    /**
+     * Converts a text input file to the binary format.
+     * Returns the number of events written.
+     */
+    public static long convert(Path text, Path bin) throws IOException {
+        Writer out = new Writer(bin);
+        try (CommandReader in = new CommandReader(text); out) {
+
+            long[] f = new long[TraceBuffer.FIELDS];
+            while (in.next()) {
+                char t = in.type();
+                if (t != 'C' && t != 'A' && t != 'D') continue;
+
+                in.record(f, 0);
+                out.add(t, f);
+            }
+        }
+        return out.getCount();
+    }
+
+    public static void main(String[] args) {
+        if (args.length != 2) {
+            System.out.println("Usage: java BinaryTrace <input.txt> <trace.bin>");
+            return;
+        }
+        try {
+            long t0 = System.nanoTime();
+            long n = convert(Paths.get(args[0]), Paths.get(args[1]));
+            System.out.println("Wrote " + n + " events to " + args[1]
+                    + " in " + (System.nanoTime() - t0) / 1_000_000 + " ms");
+        } catch (IOException e) {
+            System.out.println("File error: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,107 @@
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * BuddyAllocator
+ * --------------
+ * Binary buddy system. Requests are rounded up to a power of two (the
+ * rounding is internal fragmentation and counts as used memory).
+ *
+ * A capacity that is not a power of two is split into descending
+ * power-of-two top blocks (100 = 64 + 32 + 4); each stays aligned, so
+ * buddies never merge across top blocks. Free blocks are kept per order,
+ * so allocate/free are O(orders * log n).
+ */
+public class BuddyAllocator implements MemoryAllocator {
+
+    private static final int ORDERS = 63;
+
+    private final long capacity;
+    private final long maxBlock;
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private final TreeSet<Long>[] free = new TreeSet[ORDERS];
+
+    // handle -> {addr, order}
+    private final Map<Long, long[]> blocks = new HashMap<>();
+    private long nextHandle = 0;
+
+    private long used = 0;
+    private long failedFits = 0;
+
+    public BuddyAllocator(long capacity) {
+        this.capacity = Math.max(0, capacity);
+        this.maxBlock = Long.highestOneBit(this.capacity);
+        for (int k = 0; k < ORDERS; k++) free[k] = new TreeSet<>();
+
+        long addr = 0;
+        for (int k = ORDERS - 1; k >= 0; k--) {
+            if ((this.capacity & (1L << k)) != 0) {
+                free[k].add(addr);
+                addr += 1L << k;
+            }
+        }
+    }
+
+    @Override
+    public long allocate(long size) {
+        if (size <= 0 || size > maxBlock) return -1;
+        int k = orderFor(size);
+
+        int j = k;
+        while (j < ORDERS && free[j].isEmpty()) j++;
+        if (j == ORDERS) {
+            if (capacity - used >= size) failedFits++;
+            return -1;
+        }
+
+        long addr = free[j].pollFirst();
+        while (j > k) {            // split, keep the lower half
+            j--;
+            free[j].add(addr + (1L << j));
+        }
+
+        long handle = nextHandle++;
+        blocks.put(handle, new long[]{addr, k});
+        used += 1L << k;
+        return handle;
+    }
+
+    @Override
+    public void free(long handle) {
+        long[] b = blocks.remove(handle);
+        if (b == null) return;
+
+        long addr = b[0];
+        int k = (int) b[1];
+        used -= 1L << k;
+
+        while (k < ORDERS - 1) {
+            long buddy = addr ^ (1L << k);
+            if (!free[k].remove(buddy)) break;
+            addr = Math.min(addr, buddy);
+            k++;
+        }
+        free[k].add(addr);
+    }
+
+    private static int orderFor(long size) {
+        return 64 - Long.numberOfLeadingZeros(size - 1); // ceil(log2(size))
+    }
+
+    @Override public String getName()        { return "buddy"; }
+    @Override public long getCapacity()      { return capacity; }
+    @Override public long getUsed()          { return used; }
+    @Override public long getMaxAllocation() { return maxBlock; }
+    @Override public long getFailedFits()    { return failedFits; }
+    @Override public long getCompactions()   { return 0; }
+
+    @Override
+    public long getLargestFree() {
+        for (int k = ORDERS - 1; k >= 0; k--) {
+            if (!free[k].isEmpty()) return 1L << k;
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,79 @@
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Checkpoint
+ * ----------
+ * Binary snapshot of a running Simulation, so a scenario can be forked
+ * part-way through a trace (e.g. Static RR up to T, then Dynamic RR)
+ * without replaying the prefix.
+ *
+ * Contents, big-endian (DataOutput):
+ *   int  magic 'SCKP', int version (VERSION, currently 8)
+ *   long trace position   input records already consumed; the caller
+ *                         resumes the trace from there
+ *   Simulation.writeCheckpoint (clock, C values, PrManager state)
+ *
+ * Versions (only the current one is accepted on restore):
+ *   1  first format
+ *   2  batch-window admission state and counters
+ *   3  job deadlines, deadline admission mode and counters
+ *   4  job groups and fair-share group state
+ *   5  MLFQ levels and fair-share vruntimes move from Process into the
+ *      schedulers' PidMap tables (policy state)
+ *   6  memory/device accounting tagged with its KerServices kind
+ *   7  PRIO writes each waiting job's stored aging key
+ *   8  MLFQ levels carry the boost epoch; the epoch is saved
+ *
+ * Restoring is deterministic: queues, pending events and their tie order,
+ * running slices and counters come back exactly as saved. Scheduler
+ * counters (e.g. Dynamic RR's firstSlice/SR/AR) are restored only when the
+ * new scheduler is of the same class. Only the counter memory model is
+ * supported (no --allocator).
+ */
+public final class Checkpoint {
+
+    public static final int MAGIC = 0x53434B50; // "SCKP"
+    public static final int VERSION = 8;
+
+    private Checkpoint() { }
+
+    public static byte[] capture(Simulation sim, long tracePosition) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(4096);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeLong(tracePosition);
+        sim.writeCheckpoint(out);
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Loads the snapshot into 'sim' (built with the scheduler to continue
+     * with) and returns the trace position to resume from.
+     */
+    public static long restore(Simulation sim, byte[] snapshot) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(snapshot));
+        if (in.readInt() != MAGIC) throw new IOException("not a checkpoint");
+        int v = in.readInt();
+        if (v != VERSION) throw new IOException("unsupported checkpoint version " + v);
+
+        long position = in.readLong();
+        sim.restoreCheckpoint(in);
+        return position;
+    }
+
+    public static void save(Path file, byte[] snapshot) throws IOException {
+        Files.write(file, snapshot);
+    }
+
+    public static byte[] load(Path file) throws IOException {
+        return Files.readAllBytes(file);
+    }
+}
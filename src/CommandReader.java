@@ -0,0 +1,301 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * CommandReader
+ * -------------
+ * Streaming reader for the C / A / D input grammar, e.g.
+ *     C 1 M=200 S=12 [N=4]
+ *     A 10 J=1 M=5 S=4 R=8 P=1 [DL=40] [G=2]
+ *
+ * The leading fields are positional; the optional ones after them are
+ * matched by key, in any order (see layout()).
+ *
+ * The file is memory-mapped in windows, so multi-GB traces work, and
+ * numbers are parsed straight from the bytes into a reused long[]:
+ * no Strings, no boxing, no per-line garbage on the normal path.
+ *
+ * Usage:
+ *     while (r.next()) {
+ *         switch (r.type()) { ... r.parseFields(); r.field(0) ... }
+ *     }
+ */
+public class CommandReader implements Closeable {
+
+    private static final int WINDOW = 64 << 20;  // bytes mapped at a time
+    private static final int MAX_FIELDS = 16;
+
+    private final FileChannel ch;
+    private final long fileSize;
+
+    private MappedByteBuffer buf;
+    private long windowStart = 0;  // file offset of buf position 0
+
+    // current line: [lineStart, lineEnd) inside buf
+    private int lineBegin = 0;      // first byte of the line (for column numbers)
+    private int lineStart = 0;      // first non-blank byte
+    private int lineEnd = 0;
+    private int next = 0;           // where the following line begins
+    private long lineNo = 0;
+    private char type;
+
+    private final long[] fields = new long[MAX_FIELDS];
+    private final long[] keys = new long[MAX_FIELDS];
+    private int fieldCount = 0;
+
+    // optional fields of C and A by key, in Trace slot order after the required ones
+    private static final int[] C_OPTIONAL = {key("N")};
+    private static final int[] A_OPTIONAL = {key("DL"), key("G")};
+    private static final int[] NO_OPTIONAL = {};
+
+    public CommandReader(Path file) throws IOException {
+        this.ch = FileChannel.open(file, StandardOpenOption.READ);
+        this.fileSize = ch.size();
+        map(0);
+    }
+
+    /**
+     * Advances to the next non-blank line.
+     * Returns false at end of file.
+     */
+    public boolean next() throws IOException {
+        while (true) {
+            if (!findLine()) return false;
+            lineNo++;
+            fieldCount = -1; // not parsed yet
+
+            // skip leading blanks; blank lines are ignored like the old reader
+            int i = lineStart;
+            while (i < lineEnd && isBlank(buf.get(i))) i++;
+            if (i == lineEnd) continue;
+
+            type = (char) (buf.get(i) & 0xFF);
+            lineStart = i;
+            return true;
+        }
+    }
+
+    // First character of the current line (C, A, D, ...)
+    public char type() { return type; }
+
+    public long lineNumber() { return lineNo; }
+
+    /**
+     * Parses the numeric fields after the command letter into primitives.
+     * "J=12" and "12" are both accepted; the key letter is not checked.
+     * Returns the number of fields.
+     */
+    public int parseFields() throws IOException {
+        if (fieldCount >= 0) return fieldCount;
+
+        try {
+            fieldCount = parseFields(buf, lineStart + 1, lineEnd, fields, keys);
+        } catch (FieldError e) {
+            throw error(e.pos, e.getMessage());
+        }
+        return fieldCount;
+    }
+
+    /** Malformed field at byte 'pos' of the buffer being parsed. */
+    static final class FieldError extends Exception {
+        private static final long serialVersionUID = 1L;
+        final int pos;
+
+        FieldError(int pos, String what) {
+            super(what, null, false, false);
+            this.pos = pos;
+        }
+    }
+
+    /**
+     * The field parser itself, over any buffer: numbers of buf[from, end)
+     * into out (at most out.length). keys[j] gets field j's key (see key())
+     * in the low 32 bits, 0 if it has none, and the field's position in
+     * the high 32 bits. Also used for lines arriving over a socket
+     * (SimulationService).
+     */
+    static int parseFields(ByteBuffer buf, int from, int end, long[] out, long[] keys) throws FieldError {
+        int n = 0;
+        int i = from;
+
+        while (true) {
+            while (i < end && isBlank(buf.get(i))) i++;
+            if (i >= end) break;
+
+            if (n == out.length) throw new FieldError(i, "too many fields");
+
+            // optional KEY= prefix
+            int tok = i;
+            int k = 0;
+            while (i < end && isLetter(buf.get(i))) {
+                k = (i - tok < 6) ? (k << 5) | (buf.get(i) & 31) : -1; // -1: longer than any known key
+                i++;
+            }
+            if (i > tok) {
+                if (i >= end || buf.get(i) != '=') throw new FieldError(i, "expected '='");
+                i++;
+            }
+            keys[n] = ((long) tok << 32) | (k & 0xFFFFFFFFL);
+
+            boolean neg = false;
+            if (i < end && buf.get(i) == '-') { neg = true; i++; }
+
+            int digits = i;
+            long v = 0;
+            while (i < end) {
+                byte b = buf.get(i);
+                if (b < '0' || b > '9') break;
+                v = v * 10 + (b - '0');
+                i++;
+            }
+            if (i == digits) throw new FieldError(i, "expected a number");
+            if (i < end && !isBlank(buf.get(i))) throw new FieldError(i, "unexpected character");
+
+            out[n++] = neg ? -v : v;
+        }
+        return n;
+    }
+
+    /**
+     * Lays out the parsed fields of a C / A / D line as a Trace record in
+     * rec[off .. off + TraceBuffer.FIELDS). The first required(type) fields
+     * are positional (their key letters are not checked). The optional
+     * ones go to the slot their key names (C: N=, A: DL= and G=), in any
+     * order; one without a key takes the slot of its position. A missing
+     * required field, an unknown or repeated key, or a surplus field is an
+     * error. Unset slots are 0.
+     */
+    static void layout(char type, long[] vals, long[] keys, int n, long[] rec, int off, int end)
+            throws FieldError {
+        int required = required(type);
+        int[] optional = type == 'C' ? C_OPTIONAL : type == 'A' ? A_OPTIONAL : NO_OPTIONAL;
+        if (n < required) throw new FieldError(end, "missing field " + (n + 1));
+
+        Arrays.fill(rec, off, off + TraceBuffer.FIELDS, 0);
+        System.arraycopy(vals, 0, rec, off, required);
+
+        int seen = 0; // optional slots already set
+        for (int j = required; j < n; j++) {
+            int k = (int) keys[j];
+            int pos = (int) (keys[j] >>> 32);
+            int slot;
+            if (k == 0) {
+                slot = j - required;
+                if (slot >= optional.length) throw new FieldError(pos, "too many fields");
+            } else {
+                slot = 0;
+                while (slot < optional.length && optional[slot] != k) slot++;
+                if (slot == optional.length) {
+                    throw new FieldError(pos, k < 0 ? "unknown field" : "unknown field " + keyName(k) + "=");
+                }
+            }
+            if ((seen & (1 << slot)) != 0) throw new FieldError(pos, "repeated field " + keyName(optional[slot]) + "=");
+            seen |= 1 << slot;
+            rec[off + required + slot] = vals[j];
+        }
+    }
+
+    // number of positional fields a C, A or D line must have
+    static int required(char type) {
+        return type == 'C' ? 3 : type == 'A' ? 6 : 1;
+    }
+
+    /**
+     * The current C / A / D line as a Trace record (see layout()) in
+     * rec[off .. off + TraceBuffer.FIELDS).
+     */
+    public void record(long[] rec, int off) throws IOException {
+        parseFields();
+        try {
+            layout(type, fields, keys, fieldCount, rec, off, lineEnd);
+        } catch (FieldError e) {
+            throw error(e.pos, e.getMessage());
+        }
+    }
+
+    public long field(int idx) throws IOException {
+        parseFields();
+        if (idx >= fieldCount) throw error(lineEnd, "missing field " + (idx + 1));
+        return fields[idx];
+    }
+
+    // Text of the current line; allocates, meant for diagnostics only.
+    public String lineText() {
+        byte[] b = new byte[lineEnd - lineStart];
+        for (int k = 0; k < b.length; k++) b[k] = buf.get(lineStart + k);
+        return new String(b, StandardCharsets.US_ASCII).trim();
+    }
+
+    @Override
+    public void close() throws IOException {
+        ch.close();
+    }
+
+    // ===== internals =====
+
+    // Locates the next line, remapping the window if it crosses the edge.
+    private boolean findLine() throws IOException {
+        while (true) {
+            int limit = buf.limit();
+            if (next >= limit && windowStart + limit >= fileSize) return false;
+
+            int i = next;
+            while (i < limit && buf.get(i) != '\n') i++;
+
+            if (i == limit && windowStart + limit < fileSize) {
+                // line runs past this window: remap starting at it
+                if (next == 0) throw error(0, "line longer than " + WINDOW + " bytes");
+                map(windowStart + next);
+                continue;
+            }
+
+            lineBegin = next;
+            lineStart = next;
+            lineEnd = i;
+            if (lineEnd > lineStart && buf.get(lineEnd - 1) == '\r') lineEnd--;
+            next = Math.min(i + 1, limit);
+            if (i == limit) next = limit; // last line without newline
+            return true;
+        }
+    }
+
+    private void map(long offset) throws IOException {
+        long len = Math.min(WINDOW, fileSize - offset);
+        buf = ch.map(FileChannel.MapMode.READ_ONLY, offset, len);
+        windowStart = offset;
+        next = 0;
+    }
+
+    private IOException error(int pos, String what) {
+        long col = pos - lineBegin + 1;
+        return new IOException("Malformed input at line " + lineNo + ", column " + col + ": " + what);
+    }
+
+    static boolean isBlank(byte b) {
+        return b == ' ' || b == '\t' || b == '\r';
+    }
+
+    private static boolean isLetter(byte b) {
+        return (b >= 'A' && b <= 'Z') || (b >= 'a' && b <= 'z');
+    }
+
+    // a key of up to 6 letters, case-insensitive, 5 bits per letter
+    private static int key(String name) {
+        int k = 0;
+        for (int i = 0; i < name.length(); i++) k = (k << 5) | (name.charAt(i) & 31);
+        return k;
+    }
+
+    private static String keyName(int k) {
+        StringBuilder sb = new StringBuilder();
+        for (; k != 0; k >>>= 5) sb.append((char) ('A' - 1 + (k & 31)));
+        return sb.reverse().toString();
+    }
+}
@@ -0,0 +1,130 @@
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.SplittableRandom;
+
+/**
+ * DRoundRobinCheck
+ * ----------------
+ * Randomized equivalence check for Dynamic RR's running burst sum.
+ *
+ * Every round draws a seeded workload (arrival rate, burst and memory
+ * distributions, device mix, cores) and simulates it twice: once with
+ * DRoundRobinScheduler, which reads READY's running burst sum, and once
+ * with a reference that sums a snapshot of READY on every decision, as
+ * the scheduler did before the running sum existed. Both record every
+ * decision as (pid, slice); the two sequences must be identical.
+ *
+ * Usage: java DRoundRobinCheck [rounds] [jobsPerRound] [seed]
+ */
+public class DRoundRobinCheck {
+
+    private static final String[] ARRIVALS = {"poisson:0.05", "poisson:0.2", "poisson:1", "mmpp:0.05,2,200"};
+    private static final String[] BURSTS   = {"exp:10", "uniform:1,60", "pareto:1.5,2", "lognormal:2,1"};
+    private static final String[] MEMORIES = {"lognormal:3,1", "uniform:1,400", "const:5"};
+    private static final String[] DEVICES  = {"0:0.6,1:0.3,2:0.1", "0:1", "0:0.2,3:0.5,8:0.3"};
+
+    public static void main(String[] args) {
+        int rounds = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+        int jobs = args.length > 1 ? Integer.parseInt(args[1]) : 2_000;
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : 1;
+
+        SplittableRandom rnd = new SplittableRandom(seed);
+        long decisions = 0;
+        for (int r = 0; r < rounds; r++) {
+            long s = rnd.nextLong();
+            String arrival = pick(rnd, ARRIVALS), burst = pick(rnd, BURSTS);
+            String memory = pick(rnd, MEMORIES), devices = pick(rnd, DEVICES);
+            int cores = 1 + rnd.nextInt(4);
+
+            Recording running = new Recording();
+            Snapshotting reference = new Snapshotting();
+            run(running, s, jobs, arrival, burst, memory, devices, cores);
+            run(reference, s, jobs, arrival, burst, memory, devices, cores);
+
+            long[] a = running.decisions(), b = reference.decisions();
+            if (!Arrays.equals(a, b)) {
+                int i = 0;
+                while (i < Math.min(a.length, b.length) && a[i] == b[i]) i++;
+                System.out.println("FAILED round " + r + " (seed " + s + ", " + arrival + ", " + burst
+                        + ", cores " + cores + "): decision " + i / 2 + " differs, "
+                        + a.length / 2 + " vs " + b.length / 2 + " decisions");
+                System.exit(1);
+            }
+            decisions += a.length / 2;
+        }
+        System.out.println("OK: " + rounds + " workloads, " + decisions + " identical slice decisions");
+    }
+
+    private static void run(Scheduler s, long seed, int jobs, String arrival, String burst,
+                            String memory, String devices, int cores) {
+        Simulation sim = new Simulation(s, "DynamicRR", PrManager.AdmissionPolicy.STRICT_HEAD, null);
+        WorkloadGenerator g = new WorkloadGenerator(seed, jobs, arrival, burst, memory, devices, 0.3, 1000, 8);
+        g.feed(sim, 1000, 8, cores, 0);
+        sim.finish();
+    }
+
+    private static String pick(SplittableRandom rnd, String[] options) {
+        return options[rnd.nextInt(options.length)];
+    }
+
+    // (pid, slice) pairs in decision order
+    private static final class Trail {
+        private long[] data = new long[1 << 12];
+        private int n = 0;
+
+        void add(long pid, long slice) {
+            if (n + 2 > data.length) data = Arrays.copyOf(data, data.length * 2);
+            data[n++] = pid;
+            data[n++] = slice;
+        }
+
+        long[] toArray() { return Arrays.copyOf(data, n); }
+    }
+
+    private static final class Recording extends DRoundRobinScheduler {
+        private final Trail trail = new Trail();
+
+        @Override
+        public int computeTimeSlice(Process selected, Queue readyQ) {
+            int slice = super.computeTimeSlice(selected, readyQ);
+            trail.add(selected.getPID(), slice);
+            return slice;
+        }
+
+        long[] decisions() { return trail.toArray(); }
+    }
+
+    // Dynamic RR as it was before Queue kept a burst sum: SR/AR from a snapshot of READY
+    private static final class Snapshotting extends Scheduler {
+        private final Trail trail = new Trail();
+        private boolean firstSlice = true;
+
+        @Override
+        public Process selectNextProcess(Queue readyQ) {
+            return readyQ.dequeue();
+        }
+
+        @Override
+        public int computeTimeSlice(Process selected, Queue readyQ) {
+            long remSel = selected.getBurstTime();
+            int slice;
+            if (firstSlice) {
+                firstSlice = false;
+                slice = (int) Math.max(1, remSel);
+            } else {
+                long sum = remSel;
+                int cnt = 1;
+                LinkedList<Process> snap = readyQ.snapshot();
+                for (Process p : snap) {
+                    sum += p.getBurstTime();
+                    cnt++;
+                }
+                slice = (int) Math.max(1, Math.round((double) sum / cnt));
+            }
+            trail.add(selected.getPID(), slice);
+            return slice;
+        }
+
+        long[] decisions() { return trail.toArray(); }
+    }
+}
@@ -1,4 +1,6 @@
-import java.util.LinkedList;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 
 public class DRoundRobinScheduler extends Scheduler {
 
@@ -22,15 +24,10 @@ public class DRoundRobinScheduler extends Scheduler {
         }
 
         // 2) For subsequent decisions: AR = average of the remaining bursts
-        long sum = remSel;
-        int  cnt = 1;
-
-        // READY snapshot (we DON'T remove selected here; it's already dequeued in PrManager)
-        LinkedList<Process> snap = readyQ.snapshot();
-        for (Process p : snap) {
-            sum += p.getBurstTime();
-            cnt++;
-        }
+        // READY keeps a running burst sum, so this is O(1)
+        // (selected is already dequeued in PrManager, so add it back in)
+        long sum = remSel + readyQ.getBurstSum();
+        int  cnt = 1 + readyQ.size();
 
         SR = sum;
         AR = (cnt == 0) ? 0 : (int)Math.max(1, Math.round((double)sum / cnt));
@@ -40,4 +37,18 @@ public class DRoundRobinScheduler extends Scheduler {
 
     public long getSR() { return SR; }
     public int  getAR() { return AR; }
+
+    @Override
+    public void saveState(DataOutput out) throws IOException {
+        out.writeBoolean(firstSlice);
+        out.writeLong(SR);
+        out.writeInt(AR);
+    }
+
+    @Override
+    public void loadState(DataInput in) throws IOException {
+        firstSlice = in.readBoolean();
+        SR = in.readLong();
+        AR = in.readInt();
+    }
 }
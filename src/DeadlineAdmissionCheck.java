@@ -0,0 +1,103 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * DeadlineAdmissionCheck
+ * ----------------------
+ * Checks for PrManager.DeadlineAdmission.
+ *
+ * Fixed case, under both admission policies: a 50-tick job arrives at
+ * t=1, then a 10-tick job with deadline 20 at t=2 on one core (FCFS).
+ * At t=3 the second job must be in READY with OFF, held in HQ1 with HOLD
+ * and gone with REJECT; at the end HOLD has run it, REJECT has not.
+ *
+ * Randomized: seeded arrival streams with a share of deadline jobs run
+ * under HOLD. Every job must finish: a held job that can no longer make
+ * its deadline leaves the hold queue once nothing is ahead of it.
+ *
+ * Usage: java DeadlineAdmissionCheck [rounds] [jobsPerRound] [seed]
+ */
+public class DeadlineAdmissionCheck {
+
+    private static final long MEM   = 100;
+    private static final int  DEVS  = 5;
+
+    public static void main(String[] args) {
+        int rounds = args.length > 0 ? Integer.parseInt(args[0]) : 100;
+        int jobs = args.length > 1 ? Integer.parseInt(args[1]) : 2_000;
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : 1;
+
+        boolean ok = true;
+        for (PrManager.AdmissionPolicy admission : PrManager.AdmissionPolicy.values()) {
+            ok &= fixedCase(admission, PrManager.DeadlineAdmission.OFF, "READY", 2);
+            ok &= fixedCase(admission, PrManager.DeadlineAdmission.HOLD, "HQ1", 2);
+            ok &= fixedCase(admission, PrManager.DeadlineAdmission.REJECT, "-", 1);
+        }
+
+        SplittableRandom rnd = new SplittableRandom(seed);
+        for (int r = 0; r < rounds && ok; r++) {
+            long s = rnd.nextLong();
+            int cores = 1 + rnd.nextInt(4);
+            boolean edf = rnd.nextBoolean();
+            PrManager.AdmissionPolicy admission = rnd.nextBoolean()
+                    ? PrManager.AdmissionPolicy.STRICT_HEAD : PrManager.AdmissionPolicy.BEST_FIT;
+
+            PrManager pr = manager(edf ? new EDFScheduler(true) : new FCFScheduler(),
+                    admission, PrManager.DeadlineAdmission.HOLD, cores);
+            SplittableRandom w = new SplittableRandom(s);
+            long at = 0;
+            for (int pid = 1; pid <= jobs; pid++) {
+                at += w.nextInt(8);
+                long burst = 1 + w.nextInt(40);
+                long deadline = w.nextInt(3) == 0 ? 0 : at + burst + w.nextInt(120);
+                pr.postArrival(pid, at, burst, 1 + w.nextInt(2), 1 + w.nextInt((int) MEM), w.nextInt(DEVS + 1),
+                        deadline);
+            }
+            pr.runUntil(Long.MAX_VALUE / 4);
+
+            long finished = pr.view().getFinishedCount();
+            if (finished != jobs) {
+                System.out.println("FAILED round " + r + " (seed " + s + ", " + admission + ", cores " + cores
+                        + (edf ? ", EDF" : ", FCFS") + "): " + finished + " of " + jobs + " jobs finished");
+                ok = false;
+            }
+        }
+
+        System.out.println(ok ? "OK: fixed cases and " + rounds + " HOLD workloads" : "FAILED");
+        if (!ok) System.exit(1);
+    }
+
+    private static boolean fixedCase(PrManager.AdmissionPolicy admission, PrManager.DeadlineAdmission mode,
+                                     String expectedAt3, long expectedFinished) {
+        PrManager pr = manager(new FCFScheduler(), admission, mode, 1);
+        pr.postArrival(1, 1, 50, 1, 10, 0);
+        pr.postArrival(2, 2, 10, 1, 10, 0, 20);
+        pr.runUntil(3);
+
+        PrManager.View v = pr.view();
+        List<Long> ready = new ArrayList<>(), hq1 = new ArrayList<>();
+        v.forEachReady(p -> ready.add(p.getPID()));
+        v.forEachHQ1(p -> hq1.add(p.getPID()));
+        String at3 = ready.contains(2L) ? "READY" : hq1.contains(2L) ? "HQ1" : "-";
+
+        pr.runUntil(1_000);
+        long finished = pr.view().getFinishedCount();
+
+        if (!at3.equals(expectedAt3) || finished != expectedFinished) {
+            System.out.println("FAILED " + admission + "/" + mode + ": job 2 in " + at3 + " at t=3 (expected "
+                    + expectedAt3 + "), " + finished + " finished (expected " + expectedFinished + ")");
+            return false;
+        }
+        return true;
+    }
+
+    private static PrManager manager(SchedulingPolicy policy, PrManager.AdmissionPolicy admission,
+                                     PrManager.DeadlineAdmission mode, int cores) {
+        PrManager pr = new PrManager(0, new OtherKerServices(MEM, DEVS), cores);
+        pr.setAdmissionPolicy(admission);
+        pr.setDeadlineAdmission(mode);
+        pr.setScheduler(policy);
+        return pr;
+    }
+}
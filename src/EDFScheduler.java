@@ -0,0 +1,154 @@
+import java.util.Arrays;
+import java.util.LinkedList;
+
+/**
+ * EDFScheduler
+ * ------------
+ * Earliest deadline first. Jobs without a deadline (A lines without DL=)
+ * come after every job that has one, in arrival order.
+ *
+ *   preemptive = true : a job joining READY with an earlier deadline than
+ *                       the running job's preempts it (classic EDF).
+ *   preemptive = false: the chosen job always runs to completion.
+ *
+ * Implements SchedulingPolicy directly: the ready set is a binary heap on
+ * (deadline, FIFO) in parallel arrays, so add and pick are O(log n) with
+ * no per-job allocation. A job's deadline never changes, so its key stays valid.
+ */
+public class EDFScheduler implements SchedulingPolicy {
+
+    private final boolean preemptive;
+
+    public EDFScheduler(boolean preemptive) {
+        this.preemptive = preemptive;
+    }
+
+    @Override
+    public QueueStore newReadySet() {
+        return new DeadlineHeap();
+    }
+
+    @Override
+    public Process pickNext(QueueStore ready, long now) {
+        return ready.poll(); // earliest deadline
+    }
+
+    // runs to completion unless an arrival preempts it
+    @Override
+    public long timeSlice(Process selected, QueueStore ready, long now) {
+        return Math.max(1, selected.getBurstTime());
+    }
+
+    @Override
+    public boolean shouldPreempt(Process running, long remaining, Process arrived) {
+        return preemptive && key(arrived) < key(running);
+    }
+
+    // READY is served by deadline (for the deadline admission test)
+    @Override
+    public boolean deadlineOrdered() {
+        return true;
+    }
+
+    private static long key(Process p) {
+        return p.hasDeadline() ? p.getDeadline() : Long.MAX_VALUE;
+    }
+
+    // ===== ready store =====
+
+    private static final class DeadlineHeap implements QueueStore {
+
+        private Process[] heap = new Process[16];
+        private long[] deadline = new long[16];
+        private long[] seq = new long[16];
+        private int size = 0;
+        private long nextSeq = 0;
+
+        @Override
+        public void add(Process p) {
+            if (size == heap.length) grow();
+            int i = size++;
+            heap[i] = p;
+            deadline[i] = key(p);
+            seq[i] = nextSeq++;
+            siftUp(i);
+        }
+
+        @Override
+        public Process poll() {
+            if (size == 0) return null;
+            Process p = heap[0];
+            size--;
+            if (size > 0) {
+                move(size, 0);
+                siftDown(0);
+            }
+            heap[size] = null; // let GC reclaim
+            return p;
+        }
+
+        @Override
+        public Process peek() {
+            return size == 0 ? null : heap[0];
+        }
+
+        @Override
+        public int size() { return size; }
+
+        // in selection order (sorts a copy of the heap)
+        @Override
+        public LinkedList<Process> snapshot() {
+            Integer[] idx = new Integer[size];
+            for (int i = 0; i < size; i++) idx[i] = i;
+            Arrays.sort(idx, (a, b) -> less(a, b) ? -1 : less(b, a) ? 1 : 0);
+
+            LinkedList<Process> out = new LinkedList<>();
+            for (int i : idx) out.add(heap[i]);
+            return out;
+        }
+
+        private boolean less(int a, int b) {
+            if (deadline[a] != deadline[b]) return deadline[a] < deadline[b];
+            return seq[a] < seq[b];
+        }
+
+        private void siftUp(int i) {
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (!less(i, parent)) break;
+                swap(i, parent);
+                i = parent;
+            }
+        }
+
+        private void siftDown(int i) {
+            while (true) {
+                int l = 2 * i + 1;
+                if (l >= size) break;
+                int m = (l + 1 < size && less(l + 1, l)) ? l + 1 : l;
+                if (!less(m, i)) break;
+                swap(i, m);
+                i = m;
+            }
+        }
+
+        private void swap(int a, int b) {
+            Process p = heap[a]; heap[a] = heap[b]; heap[b] = p;
+            long d = deadline[a]; deadline[a] = deadline[b]; deadline[b] = d;
+            long s = seq[a];      seq[a] = seq[b];           seq[b] = s;
+        }
+
+        private void move(int from, int to) {
+            heap[to] = heap[from];
+            deadline[to] = deadline[from];
+            seq[to] = seq[from];
+        }
+
+        private void grow() {
+            int cap = heap.length * 2;
+            heap = Arrays.copyOf(heap, cap);
+            deadline = Arrays.copyOf(deadline, cap);
+            seq = Arrays.copyOf(seq, cap);
+        }
+    }
+}
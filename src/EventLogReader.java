@@ -0,0 +1,266 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * EventLogReader
+ * --------------
+ * Offline tool for files written by EventLog. For every configuration
+ * section it prints
+ *   - event counts per kind,
+ *   - a Gantt chart per core (scaled bar + the exact run segments),
+ *   - optionally, per-job timelines (every event that touched the job).
+ *
+ * Usage:
+ *   java EventLogReader events.bin [--width=100] [--jobs] [--job=PID]
+ *
+ * Bar legend: each column is one time bucket; the character is the last
+ * base-36 digit of the PID that ran longest in it, '.' = idle.
+ */
+public class EventLogReader {
+
+    // One run of a job on a core: [start, end)
+    private static final class Segment {
+        final long start, end, pid;
+
+        Segment(long start, long end, long pid) {
+            this.start = start;
+            this.end = end;
+            this.pid = pid;
+        }
+    }
+
+    private static final class Section {
+        final int index;
+        final long mem;
+        final int cores;
+        final long[] counts = new long[EventLog.KIND_NAMES.length];
+        final List<List<Segment>> gantt = new ArrayList<>();
+        final Map<Long, StringBuilder> timelines = new LinkedHashMap<>();
+        long[] openStart = new long[0];
+        long[] openPid = new long[0];
+        long first = Long.MAX_VALUE, last = Long.MIN_VALUE;
+
+        Section(int index, long mem, int cores) {
+            this.index = index;
+            this.mem = mem;
+            this.cores = cores;
+        }
+
+        List<Segment> core(int c) {
+            while (gantt.size() <= c) gantt.add(new ArrayList<>());
+            if (openStart.length <= c) {
+                int old = openStart.length;
+                openStart = Arrays.copyOf(openStart, c + 1);
+                openPid = Arrays.copyOf(openPid, c + 1);
+                for (int i = old; i <= c; i++) openPid[i] = -1;
+            }
+            return gantt.get(c);
+        }
+    }
+
+    public static void main(String[] args) {
+        if (args.length == 0) {
+            System.out.println("Usage: java EventLogReader <events.bin> [--width=100] [--jobs] [--job=PID]");
+            return;
+        }
+        int width = 100;
+        boolean allJobs = false;
+        long onlyJob = -1;
+        for (int i = 1; i < args.length; i++) {
+            String a = args[i];
+            if (a.startsWith("--width=")) width = Math.max(10, Integer.parseInt(a.substring(8)));
+            else if (a.equals("--jobs")) allJobs = true;
+            else if (a.startsWith("--job=")) onlyJob = Long.parseLong(a.substring(6));
+        }
+        boolean timelines = allJobs || onlyJob >= 0;
+
+        List<Section> sections;
+        try {
+            sections = read(args[0], timelines, onlyJob);
+        } catch (IOException e) {
+            System.out.println("File error: " + e.getMessage());
+            return;
+        }
+
+        StringBuilder sb = new StringBuilder();
+        for (Section s : sections) print(sb, s, width, timelines);
+        System.out.print(sb);
+    }
+
+    // ===== reading =====
+
+    private static List<Section> read(String file, boolean timelines, long onlyJob) throws IOException {
+        List<Section> sections = new ArrayList<>();
+        Section cur = null;
+
+        try (FileChannel ch = FileChannel.open(Paths.get(file), StandardOpenOption.READ)) {
+            ByteBuffer b = ByteBuffer.allocateDirect(1 << 20).order(ByteOrder.LITTLE_ENDIAN);
+            b.limit(EventLog.HEADER_SIZE);
+            while (b.hasRemaining() && ch.read(b) > 0) { }
+            if (b.position() < EventLog.HEADER_SIZE || b.getInt(0) != EventLog.MAGIC) {
+                throw new IOException("not an event log");
+            }
+            if (b.getInt(4) != EventLog.VERSION || b.getInt(8) != EventLog.RECORD_SIZE) {
+                throw new IOException("unsupported event log version " + b.getInt(4)
+                        + " (record size " + b.getInt(8) + ")");
+            }
+            b.clear();
+
+            long time = 0, widePid = 0, wideArg = 0;
+            while (ch.read(b) > 0 || b.position() > 0) {
+                b.flip();
+                while (b.remaining() >= EventLog.RECORD_SIZE) {
+                    long word = b.getLong();
+                    long ids = b.getLong();
+                    int kind = EventLog.kindOf(word);
+                    if (kind == EventLog.CLOCK) {
+                        time = ids;
+                        continue;
+                    }
+                    if (kind == EventLog.WIDE) {
+                        widePid = EventLog.widePid(ids);
+                        wideArg = EventLog.wideArg(ids);
+                        continue;
+                    }
+                    if (kind >= EventLog.KIND_NAMES.length) {
+                        throw new IOException("unknown event kind " + kind);
+                    }
+                    time += EventLog.dtOf(word);
+                    int core = EventLog.coreOf(word);
+                    long pid = EventLog.pidOf(ids) | widePid;
+                    long arg = EventLog.argOf(ids) | wideArg;
+                    widePid = 0;
+                    wideArg = 0;
+
+                    if (kind == EventLog.CONFIG || cur == null) {
+                        cur = new Section(sections.size(), kind == EventLog.CONFIG ? pid : 0,
+                                kind == EventLog.CONFIG ? (int) arg : 1);
+                        sections.add(cur);
+                    }
+                    apply(cur, time, kind, core, pid, arg, timelines, onlyJob);
+                }
+                if (b.remaining() > 0 && ch.position() >= ch.size()) break; // torn last record
+                b.compact();
+            }
+        }
+        return sections;
+    }
+
+    private static void apply(Section s, long time, int kind, int core, long pid, long arg,
+                              boolean timelines, long onlyJob) {
+        if (kind >= 0 && kind < s.counts.length) s.counts[kind]++;
+        long ran = 0;
+        if (kind != EventLog.CONFIG) {
+            s.first = Math.min(s.first, time);
+            s.last = Math.max(s.last, time);
+        }
+
+        switch (kind) {
+            case EventLog.DISPATCH:
+                s.core(core);
+                s.openStart[core] = time;
+                s.openPid[core] = pid;
+                break;
+            case EventLog.PREEMPT:
+            case EventLog.COMPLETE: {
+                List<Segment> list = s.core(core);
+                if (s.openPid[core] == pid) {
+                    list.add(new Segment(s.openStart[core], time, pid));
+                    s.openPid[core] = -1;
+                    ran = time - s.openStart[core];
+                }
+                break;
+            }
+            default:
+                break;
+        }
+
+        if (timelines && kind != EventLog.CONFIG && (onlyJob < 0 || onlyJob == pid)) {
+            StringBuilder t = s.timelines.computeIfAbsent(pid, k -> new StringBuilder());
+            t.append("    ").append(time).append(' ').append(EventLog.KIND_NAMES[kind]);
+            switch (kind) {
+                case EventLog.HOLD:     t.append(" HQ").append(arg); break;
+                case EventLog.ADMIT:    t.append(" core ").append(core)
+                                         .append(arg == 0 ? " from SUBMIT" : " from HQ" + arg); break;
+                case EventLog.DISPATCH: t.append(" core ").append(core).append(" slice ").append(arg); break;
+                case EventLog.PREEMPT:  t.append(" core ").append(core).append(" ran ").append(arg); break;
+                case EventLog.COMPLETE: t.append(" core ").append(core).append(" ran ").append(ran)
+                                         .append(" mem ").append(arg); break;
+                case EventLog.STEAL:    t.append(" core ").append(core).append(" from core ").append(arg); break;
+                case EventLog.ARRIVE:   t.append(" burst ").append(arg); break;
+                case EventLog.REJECT:   t.append(" mem ").append(arg); break;
+                case EventLog.DL_REJECT: t.append(" deadline ").append(arg); break;
+                default: break;
+            }
+            t.append('\n');
+        }
+    }
+
+    // ===== output =====
+
+    private static void print(StringBuilder sb, Section s, int width, boolean timelines) {
+        sb.append("=== Section ").append(s.index)
+          .append(" (mem=").append(s.mem).append(", cores=").append(s.cores).append(") ===\n");
+        for (int k = 0; k < s.counts.length; k++) {
+            if (s.counts[k] > 0) sb.append("  ").append(EventLog.KIND_NAMES[k]).append(": ").append(s.counts[k]).append('\n');
+        }
+        if (s.first > s.last) {
+            sb.append('\n');
+            return;
+        }
+
+        long from = s.first, to = s.last + 1;
+        double perCol = Math.max(1.0, (to - from) / (double) width);
+        sb.append("\nGantt ").append(from).append(" .. ").append(to)
+          .append(" (").append(String.format(Locale.ROOT, "%.1f", perCol)).append(" ticks/col)\n");
+
+        for (int c = 0; c < s.gantt.size(); c++) {
+            sb.append("  core ").append(c).append(" |").append(bar(s.gantt.get(c), from, perCol, width)).append("|\n");
+        }
+        for (int c = 0; c < s.gantt.size(); c++) {
+            sb.append("  core ").append(c).append(':');
+            for (Segment g : s.gantt.get(c)) {
+                sb.append(" [").append(g.start).append(',').append(g.end).append(")J").append(g.pid);
+            }
+            sb.append('\n');
+        }
+
+        if (timelines) {
+            sb.append("\nJob timelines\n");
+            for (Map.Entry<Long, StringBuilder> e : s.timelines.entrySet()) {
+                sb.append("  Job ").append(e.getKey()).append('\n').append(e.getValue());
+            }
+        }
+        sb.append('\n');
+    }
+
+    private static String bar(List<Segment> segs, long from, double perCol, int width) {
+        char[] col = new char[width];
+        long[] best = new long[width];
+        Arrays.fill(col, '.');
+
+        for (Segment g : segs) {
+            int c0 = (int) ((g.start - from) / perCol);
+            int c1 = (int) Math.min(width - 1, (g.end - 1 - from) / perCol);
+            for (int c = Math.max(0, c0); c <= c1; c++) {
+                double lo = from + c * perCol, hi = lo + perCol;
+                long overlap = (long) (Math.min(hi, g.end) - Math.max(lo, g.start));
+                if (overlap > best[c]) {
+                    best[c] = overlap;
+                    col[c] = Character.toUpperCase(Character.forDigit((int) (g.pid % 36), 36));
+                }
+            }
+        }
+        return new String(col);
+    }
+}
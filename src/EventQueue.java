@@ -0,0 +1,135 @@
+import java.util.Arrays;
+
+/**
+ * EventQueue
+ * ----------
+ * Time-ordered event heap for the discrete-event engine in PrManager.
+ * Keys are kept in primitive arrays (no boxing, no per-event node objects);
+ * only the optional payload is an object reference.
+ *
+ * Ordering at the same timestamp:
+ *   1) CPU events (SLICE_END, COMPLETION) first, so a job whose slice ends
+ *      at time t is settled before anything else happens at t,
+ *   2) then every other event in the order it was posted.
+ */
+public class EventQueue {
+
+    // event types
+    public static final int SLICE_END  = 0;
+    public static final int COMPLETION = 1;
+    public static final int ARRIVAL    = 2;
+    public static final int DISPLAY    = 3;
+    public static final int CONFIG     = 4;
+    public static final int BATCH_CLOSE = 5;   // end of a batch-admission window
+
+    private long[]   time;
+    private long[]   seq;
+    private int[]    type;
+    private Object[] payload;
+    private int size = 0;
+    private long nextSeq = 0;
+
+    public EventQueue() {
+        this(64);
+    }
+
+    public EventQueue(int initialCapacity) {
+        int cap = Math.max(4, initialCapacity);
+        time = new long[cap];
+        seq = new long[cap];
+        type = new int[cap];
+        payload = new Object[cap];
+    }
+
+    // +push()
+    public void push(long t, int eventType, Object data) {
+        if (size == time.length) grow();
+        int i = size++;
+        time[i] = t;
+        seq[i] = nextSeq++;
+        type[i] = eventType;
+        payload[i] = data;
+        siftUp(i);
+    }
+
+    // head accessors (undefined when empty)
+    public long peekTime()      { return time[0]; }
+    public int peekType()       { return type[0]; }
+    public Object peekPayload() { return payload[0]; }
+
+    // removes the head event
+    public void pop() {
+        if (size == 0) return;
+        size--;
+        if (size > 0) {
+            move(size, 0);
+            siftDown(0);
+        }
+        payload[size] = null; // let GC reclaim
+    }
+
+    public boolean isEmpty() { return size == 0; }
+    public int size() { return size; }
+
+    // Raw entries in heap order, i < size() (for checkpointing).
+    // Re-pushing them sorted by seqAt() rebuilds the same event order.
+    public long timeAt(int i)      { return time[i]; }
+    public int typeAt(int i)       { return type[i]; }
+    public long seqAt(int i)       { return seq[i]; }
+    public Object payloadAt(int i) { return payload[i]; }
+
+    // ===== heap internals =====
+
+    private static int rank(int eventType) {
+        return (eventType == SLICE_END || eventType == COMPLETION) ? 0 : 1;
+    }
+
+    private boolean less(int a, int b) {
+        if (time[a] != time[b]) return time[a] < time[b];
+        int ra = rank(type[a]), rb = rank(type[b]);
+        if (ra != rb) return ra < rb;
+        return seq[a] < seq[b];
+    }
+
+    private void siftUp(int i) {
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (!less(i, parent)) break;
+            swap(i, parent);
+            i = parent;
+        }
+    }
+
+    private void siftDown(int i) {
+        while (true) {
+            int l = 2 * i + 1;
+            if (l >= size) break;
+            int m = (l + 1 < size && less(l + 1, l)) ? l + 1 : l;
+            if (!less(m, i)) break;
+            swap(i, m);
+            i = m;
+        }
+    }
+
+    private void swap(int a, int b) {
+        long t = time[a]; time[a] = time[b]; time[b] = t;
+        long s = seq[a];  seq[a] = seq[b];   seq[b] = s;
+        int  y = type[a]; type[a] = type[b]; type[b] = y;
+        Object o = payload[a]; payload[a] = payload[b]; payload[b] = o;
+    }
+
+    private void move(int from, int to) {
+        time[to] = time[from];
+        seq[to] = seq[from];
+        type[to] = type[from];
+        payload[to] = payload[from];
+    }
+
+    private void grow() {
+        int cap = time.length * 2;
+        time = Arrays.copyOf(time, cap);
+        seq = Arrays.copyOf(seq, cap);
+        type = Arrays.copyOf(type, cap);
+        payload = Arrays.copyOf(payload, cap);
+    }
+}
@@ -0,0 +1,380 @@
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.function.Consumer;
+
+/**
+ * FairShareScheduler
+ * ------------------
+ * Hierarchical fair share in the style of CFS. Jobs belong to groups
+ * (G= on the A line, group 0 when absent); groups share the CPU in
+ * proportion to their weights, and jobs share their group's part equally.
+ *
+ * Virtual time as in stride scheduling: a slice of 'run' ticks advances
+ * the job's vruntime by run and its group's by run * STRIDE / weight.
+ * It is charged when the slice is handed out (slices here are never cut
+ * short). A decision takes the group with the smallest vruntime among
+ * those waiting on the core, then that group's job with the smallest
+ * vruntime, and runs it for one quantum.
+ *
+ * A group that becomes active again, or a job that has not run yet, starts
+ * no earlier than the largest vruntime picked so far at its level, so
+ * time spent idle is not banked as credit.
+ *
+ * Ready set per core: a tree of groups, each holding a tree of its jobs,
+ * so a decision is O(log groups + log jobs-in-group). Group vruntimes are
+ * shared by all cores; an entry whose key fell behind (its group ran on
+ * another core) is re-keyed when it reaches the front. Keys only grow, so
+ * a front entry whose key is current is the true minimum.
+ *
+ * Job vruntimes are kept here by PID (PidMap), dropped on completion and
+ * at a new section.
+ *
+ * Weights: "1:3,2:1" gives group 1 three times the share of group 2;
+ * groups not listed weigh 1.
+ */
+public class FairShareScheduler implements SchedulingPolicy {
+
+    // a group's vruntime advances STRIDE / weight per tick
+    private static final long STRIDE = 1 << 20;
+
+    /** One owner group: weight, virtual time and CPU handed out. */
+    public static final class Group {
+        final int id;
+        final int index;        // dense slot in the per-core ready sets
+        final long weight;
+        long vruntime = 0;
+        long jobClock = 0;      // largest job vruntime picked in this group
+        long active = 0;        // admitted, unfinished jobs
+        long cpu = 0;           // ticks run
+        long jobs = 0;          // jobs admitted
+
+        Group(int id, int index, long weight) {
+            this.id = id;
+            this.index = index;
+            this.weight = weight;
+        }
+
+        public int getId()      { return id; }
+        public long getWeight() { return weight; }
+        public long getCpu()    { return cpu; }
+        public long getJobs()   { return jobs; }
+        public long getActive() { return active; }
+    }
+
+    private final int quantum;
+    private final Map<Integer, Long> weights;
+    private final List<Group> groups = new ArrayList<>();   // by index
+    private Group[] byId = new Group[16];
+    private long groupClock = 0;                            // largest group vruntime picked
+    private final PidMap vruntime = new PidMap();           // pid -> job vruntime
+
+    public FairShareScheduler(int quantum, String weights) {
+        this.quantum = Math.max(1, quantum);
+        this.weights = parseWeights(weights);
+    }
+
+    public int getQuantum() { return quantum; }
+
+    // groups seen so far, in order of first appearance
+    public List<Group> getGroups() { return Collections.unmodifiableList(groups); }
+
+    // "ID:W,ID:W"; null or empty = every group weighs 1
+    static Map<Integer, Long> parseWeights(String spec) {
+        Map<Integer, Long> w = new HashMap<>();
+        if (spec == null || spec.isBlank()) return w;
+        for (String part : spec.split(",")) {
+            String[] kv = part.trim().split(":");
+            if (kv.length != 2) throw new IllegalArgumentException("expected ID:WEIGHT, got " + part);
+            int id = Integer.parseInt(kv[0].trim());
+            long weight = Long.parseLong(kv[1].trim());
+            if (id < 0 || id > Process.MAX_GROUP || weight < 1) {
+                throw new IllegalArgumentException("bad group weight " + part);
+            }
+            w.put(id, weight);
+        }
+        return w;
+    }
+
+    private Group group(Process p) {
+        return group(p.getGroup());
+    }
+
+    private Group group(int id) {
+        if (id >= byId.length) byId = Arrays.copyOf(byId, Math.max(id + 1, byId.length * 2));
+        Group g = byId[id];
+        if (g == null) {
+            g = new Group(id, groups.size(), weights.getOrDefault(id, 1L));
+            byId[id] = g;
+            groups.add(g);
+        }
+        return g;
+    }
+
+    // ===== SchedulingPolicy =====
+
+    @Override
+    public QueueStore newReadySet() {
+        return new FairStore();
+    }
+
+    @Override
+    public Process pickNext(QueueStore ready, long now) {
+        Process p = ready.poll();
+        if (p != null) {
+            Group g = group(p);
+            groupClock = Math.max(groupClock, g.vruntime);
+            g.jobClock = Math.max(g.jobClock, vruntime(p));
+        }
+        return p;
+    }
+
+    @Override
+    public long timeSlice(Process selected, QueueStore ready, long now) {
+        charge(selected, Math.max(1, Math.min(selected.getBurstTime(), quantum)));
+        return quantum;
+    }
+
+    private void charge(Process p, long run) {
+        Group g = group(p);
+        g.vruntime += run * STRIDE / g.weight;
+        g.cpu += run;
+        vruntime.put(p.getPID(), vruntime(p) + run);
+    }
+
+    private long vruntime(Process p) {
+        return vruntime.get(p.getPID(), 0);
+    }
+
+    @Override
+    public void onEnqueue(Process p, long now) {
+        Group g = group(p);
+        g.jobs++;
+        if (g.active++ == 0) g.vruntime = Math.max(g.vruntime, groupClock);
+        vruntime.put(p.getPID(), Math.max(vruntime(p), g.jobClock));
+    }
+
+    @Override
+    public void onComplete(Process p, long now) {
+        group(p).active--;
+        vruntime.remove(p.getPID());
+    }
+
+    // unfinished jobs of the last section no longer keep their group active
+    @Override
+    public void onSection(long start) {
+        for (Group g : groups) g.active = 0;
+        vruntime.clear();
+    }
+
+    // a lone job is picked again every quantum and charged a full one
+    @Override
+    public long repeatSlice(Process p) {
+        return quantum;
+    }
+
+    @Override
+    public void onSlicesSkipped(Process p, long slices, long now) {
+        Group g = group(p);
+        long step = (long) quantum * STRIDE / g.weight;
+        // clocks as of the last skipped pick, then its charge
+        g.vruntime += (slices - 1) * step;
+        long vr = vruntime(p) + (slices - 1) * quantum;
+        groupClock = Math.max(groupClock, g.vruntime);
+        g.jobClock = Math.max(g.jobClock, vr);
+        g.vruntime += step;
+        g.cpu += slices * quantum;
+        vruntime.put(p.getPID(), vr + quantum);
+    }
+
+    @Override
+    public void saveState(DataOutput out) throws IOException {
+        out.writeLong(groupClock);
+        out.writeInt(groups.size());
+        for (Group g : groups) {
+            out.writeInt(g.id);
+            out.writeLong(g.vruntime);
+            out.writeLong(g.jobClock);
+            out.writeLong(g.active);
+            out.writeLong(g.cpu);
+            out.writeLong(g.jobs);
+        }
+        vruntime.writeTo(out);
+    }
+
+    // weights come from this instance's configuration, not the checkpoint
+    @Override
+    public void loadState(DataInput in) throws IOException {
+        groups.clear();
+        Arrays.fill(byId, null);
+        groupClock = in.readLong();
+        int n = in.readInt();
+        for (int i = 0; i < n; i++) {
+            Group g = group(in.readInt());
+            g.vruntime = in.readLong();
+            g.jobClock = in.readLong();
+            g.active = in.readLong();
+            g.cpu = in.readLong();
+            g.jobs = in.readLong();
+        }
+        vruntime.readFrom(in);
+    }
+
+    // ===== ready store =====
+
+    private static final class JobEntry {
+        final Process p;
+        final long seq;
+        long key;               // p's vruntime when (re)inserted
+
+        JobEntry(Process p, long seq, long key) {
+            this.p = p;
+            this.seq = seq;
+            this.key = key;
+        }
+    }
+
+    private static final class GroupEntry {
+        final Group group;
+        final TreeSet<JobEntry> jobs = new TreeSet<>(JOB_ORDER);
+        long key;               // group's vruntime when (re)inserted
+        long seq;
+
+        GroupEntry(Group group) { this.group = group; }
+    }
+
+    private static final Comparator<JobEntry> JOB_ORDER = (a, b) -> {
+        if (a.key != b.key) return Long.compare(a.key, b.key);
+        return Long.compare(a.seq, b.seq);
+    };
+
+    private static final Comparator<GroupEntry> GROUP_ORDER = (a, b) -> {
+        if (a.key != b.key) return Long.compare(a.key, b.key);
+        return Long.compare(a.seq, b.seq);
+    };
+
+    private final class FairStore implements QueueStore {
+        private final TreeSet<GroupEntry> front = new TreeSet<>(GROUP_ORDER);
+        private GroupEntry[] entries = new GroupEntry[4];   // by Group.index
+        private long nextSeq = 0;
+        private int size = 0;
+        private final List<GroupEntry> staleGroups = new ArrayList<>();    // scratch for rekey()
+        private final List<JobEntry> staleJobs = new ArrayList<>();
+
+        @Override
+        public void add(Process p) {
+            Group g = group(p);
+            if (g.index >= entries.length) entries = Arrays.copyOf(entries, Math.max(g.index + 1, entries.length * 2));
+            GroupEntry e = entries[g.index];
+            if (e == null) e = entries[g.index] = new GroupEntry(g);
+
+            if (e.jobs.isEmpty()) {
+                e.key = g.vruntime;
+                e.seq = nextSeq++;
+                front.add(e);
+            }
+            e.jobs.add(new JobEntry(p, nextSeq++, vruntime(p)));
+            size++;
+        }
+
+        @Override
+        public Process poll() {
+            GroupEntry e = firstGroup();
+            if (e == null) return null;
+            JobEntry j = firstJob(e);
+            e.jobs.pollFirst();
+            if (e.jobs.isEmpty()) front.pollFirst();
+            size--;
+            return j.p;
+        }
+
+        @Override
+        public Process peek() {
+            GroupEntry e = firstGroup();
+            return e == null ? null : firstJob(e).p;
+        }
+
+        @Override
+        public int size() { return size; }
+
+        // group by group, in selection order on current keys (a Checkpoint
+        // re-adds jobs in this order, which must rebuild the same ties)
+        @Override
+        public LinkedList<Process> snapshot() {
+            List<GroupEntry> gs = new ArrayList<>(front);
+            gs.sort(Comparator.<GroupEntry>comparingLong(e -> e.group.vruntime).thenComparingLong(e -> e.seq));
+
+            LinkedList<Process> out = new LinkedList<>();
+            for (GroupEntry e : gs) {
+                List<JobEntry> js = new ArrayList<>(e.jobs);
+                js.sort(Comparator.<JobEntry>comparingLong(j -> vruntime(j.p)).thenComparingLong(j -> j.seq));
+                for (JobEntry j : js) out.add(j.p);
+            }
+            return out;
+        }
+
+        // snapshot()'s order without copying: stale keys are brought up to
+        // date first (as poll would on reaching them), then the trees are walked
+        @Override
+        public void forEach(Consumer<? super Process> action) {
+            rekey();
+            for (GroupEntry e : front) {
+                for (JobEntry j : e.jobs) action.accept(j.p);
+            }
+        }
+
+        private void rekey() {
+            for (GroupEntry e : front) {
+                for (JobEntry j : e.jobs) {
+                    if (j.key != vruntime(j.p)) staleJobs.add(j);
+                }
+                for (JobEntry j : staleJobs) {
+                    e.jobs.remove(j);
+                    j.key = vruntime(j.p);
+                    e.jobs.add(j);
+                }
+                staleJobs.clear();
+                if (e.key != e.group.vruntime) staleGroups.add(e);
+            }
+            for (GroupEntry e : staleGroups) {
+                front.remove(e);
+                e.key = e.group.vruntime;
+                front.add(e);
+            }
+            staleGroups.clear();
+        }
+
+        // front group with a current key (stale ones are re-keyed on the way)
+        private GroupEntry firstGroup() {
+            while (!front.isEmpty()) {
+                GroupEntry e = front.first();
+                if (e.key == e.group.vruntime) return e;
+                front.pollFirst();
+                e.key = e.group.vruntime;
+                front.add(e);
+            }
+            return null;
+        }
+
+        // same for the jobs of one group (a new job's vruntime is raised on admission)
+        private JobEntry firstJob(GroupEntry e) {
+            while (true) {
+                JobEntry j = e.jobs.first();
+                long vr = vruntime(j.p);
+                if (j.key == vr) return j;
+                e.jobs.pollFirst();
+                j.key = vr;
+                e.jobs.add(j);
+            }
+        }
+    }
+}
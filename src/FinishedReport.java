@@ -0,0 +1,125 @@
+import java.util.Arrays;
+
+/**
+ * FinishedReport
+ * --------------
+ * The "Finished Jobs (detailed)" table of the D output, kept up to date
+ * incrementally instead of being re-collected and re-sorted on every D.
+ *
+ * Row indices of the FinishedTable are merged into a PID-ordered index
+ * the first time they are displayed (stable: equal PIDs stay in
+ * completion order, as with List.sort). Rows are formatted straight from
+ * the table's columns while the display is written, so nothing but the
+ * 4-byte index entry is kept per row. A display costs O(new rows log new
+ * rows) merging plus formatting the rows it prints.
+ */
+public class FinishedReport {
+
+    private final FinishedTable table;
+
+    private int absorbed = 0;                  // rows of 'table' already indexed
+    private int[] order = new int[64];         // row indices sorted by pid
+    private int[] scratch = new int[64];
+
+    public FinishedReport(FinishedTable table) {
+        this.table = table;
+    }
+
+    /**
+     * Appends the formatted rows with completionTime <= upToTime, ordered by PID.
+     * Returns the number of rows written.
+     */
+    public int appendRows(StringBuilder out, long upToTime) {
+        absorbNewRows();
+
+        int written = 0;
+        for (int i = 0; i < absorbed; i++) {
+            int r = order[i];
+            if (table.completion(r) > upToTime) continue;
+            formatRow(out, r);
+            written++;
+        }
+        return written;
+    }
+
+    private void absorbNewRows() {
+        int total = table.size();
+        if (total == absorbed) return;
+
+        if (order.length < total) {
+            int cap = Math.max(total, order.length * 2);
+            order = Arrays.copyOf(order, cap);
+            scratch = new int[cap];
+        }
+
+        // sort the new row indices by (pid, row), then merge into the index
+        int k = total - absorbed;
+        int[] fresh = new int[k];
+        for (int i = 0; i < k; i++) fresh[i] = absorbed + i;
+        sortByPid(fresh);
+
+        int a = 0, b = 0, o = 0;
+        while (a < absorbed && b < k) {
+            // existing rows win ties: they completed earlier
+            if (table.pid(order[a]) <= table.pid(fresh[b])) scratch[o++] = order[a++];
+            else scratch[o++] = fresh[b++];
+        }
+        while (a < absorbed) scratch[o++] = order[a++];
+        while (b < k) scratch[o++] = fresh[b++];
+
+        int[] t = order; order = scratch; scratch = t;
+        absorbed = total;
+    }
+
+    // insertion sort for small batches, otherwise a stable merge sort
+    private void sortByPid(int[] rows) {
+        if (rows.length <= 32) {
+            for (int i = 1; i < rows.length; i++) {
+                int v = rows[i];
+                int j = i - 1;
+                while (j >= 0 && table.pid(rows[j]) > table.pid(v)) {
+                    rows[j + 1] = rows[j];
+                    j--;
+                }
+                rows[j + 1] = v;
+            }
+            return;
+        }
+        int mid = rows.length / 2;
+        int[] left = Arrays.copyOfRange(rows, 0, mid);
+        int[] right = Arrays.copyOfRange(rows, mid, rows.length);
+        sortByPid(left);
+        sortByPid(right);
+        int a = 0, b = 0, o = 0;
+        while (a < left.length && b < right.length) {
+            if (table.pid(left[a]) <= table.pid(right[b])) rows[o++] = left[a++];
+            else rows[o++] = right[b++];
+        }
+        while (a < left.length) rows[o++] = left[a++];
+        while (b < right.length) rows[o++] = right[b++];
+    }
+
+    // "  %-6d %-14.2f %-15.2f %-18.2f %-14.2f%n"
+    private void formatRow(StringBuilder sb, int r) {
+        sb.append("  ");
+        int s = sb.length();
+        sb.append(table.pid(r));
+        ReportWriter.padTo(sb, s, 6).append(' ');
+
+        s = sb.length();
+        ReportWriter.fixed2(sb, table.arrival(r));
+        ReportWriter.padTo(sb, s, 14).append(' ');
+
+        s = sb.length();
+        ReportWriter.fixed2(sb, table.completion(r));
+        ReportWriter.padTo(sb, s, 15).append(' ');
+
+        s = sb.length();
+        ReportWriter.fixed2(sb, table.turnaround(r));
+        ReportWriter.padTo(sb, s, 18).append(' ');
+
+        s = sb.length();
+        ReportWriter.fixed2(sb, table.waiting(r));
+        ReportWriter.padTo(sb, s, 14).append(ReportWriter.NL);
+    }
+}
@@ -0,0 +1,269 @@
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * FreeListAllocator
+ * -----------------
+ * Variable-size blocks carved out of free holes; freed blocks coalesce
+ * with neighbouring holes.
+ *
+ *   first-fit: lowest-address hole that is big enough. Holes live in a
+ *              treap ordered by address where every node also knows the
+ *              largest hole in its subtree, so the search is O(log n).
+ *   best-fit : smallest hole that is big enough (ties: lowest address),
+ *              from a tree ordered by (size, address). O(log n).
+ *
+ * With compaction enabled, a request that fails although enough memory is
+ * free in total slides every live block down to close the holes, then retries.
+ */
+public class FreeListAllocator implements MemoryAllocator {
+
+    private static final class Hole {
+        final long addr;
+        final long size;
+        Hole(long addr, long size) { this.addr = addr; this.size = size; }
+    }
+
+    private static final class Block {
+        long addr;
+        final long size;
+        Block(long addr, long size) { this.addr = addr; this.size = size; }
+    }
+
+    private final long capacity;
+    private final boolean bestFit;
+    private final boolean compactOnFail;
+
+    // holes, indexed two ways
+    private final HoleTreap byAddr = new HoleTreap();
+    private final TreeSet<Hole> bySize = new TreeSet<>((a, b) -> {
+        if (a.size != b.size) return Long.compare(a.size, b.size);
+        return Long.compare(a.addr, b.addr);
+    });
+
+    // live blocks
+    private final Map<Long, Block> blocks = new HashMap<>();
+    private final TreeMap<Long, Long> liveByAddr = new TreeMap<>(); // addr -> handle
+    private long nextHandle = 0;
+
+    private long used = 0;
+    private long failedFits = 0;
+    private long compactions = 0;
+
+    public FreeListAllocator(long capacity, boolean bestFit, boolean compactOnFail) {
+        this.capacity = Math.max(0, capacity);
+        this.bestFit = bestFit;
+        this.compactOnFail = compactOnFail;
+        if (this.capacity > 0) addHole(0, this.capacity);
+    }
+
+    @Override
+    public long allocate(long size) {
+        if (size <= 0) return -1;
+
+        Hole h = findHole(size);
+        if (h == null) {
+            if (capacity - used < size) return -1; // simply full
+            failedFits++;                          // enough memory, but fragmented
+            if (!compactOnFail) return -1;
+            compact();
+            h = findHole(size);
+            if (h == null) return -1;
+        }
+
+        removeHole(h);
+        if (h.size > size) addHole(h.addr + size, h.size - size);
+
+        long handle = nextHandle++;
+        blocks.put(handle, new Block(h.addr, size));
+        liveByAddr.put(h.addr, handle);
+        used += size;
+        return handle;
+    }
+
+    @Override
+    public void free(long handle) {
+        Block b = blocks.remove(handle);
+        if (b == null) return;
+        liveByAddr.remove(b.addr);
+        used -= b.size;
+
+        long addr = b.addr;
+        long size = b.size;
+
+        // coalesce with the hole just below and the hole just above
+        Hole prev = byAddr.floor(addr);
+        if (prev != null && prev.addr + prev.size == addr) {
+            removeHole(prev);
+            addr = prev.addr;
+            size += prev.size;
+        }
+        Hole next = byAddr.ceiling(addr + size);
+        if (next != null && next.addr == addr + size) {
+            removeHole(next);
+            size += next.size;
+        }
+        addHole(addr, size);
+    }
+
+    private Hole findHole(long size) {
+        if (bestFit) return bySize.ceiling(new Hole(Long.MIN_VALUE, size));
+        return byAddr.firstFit(size);
+    }
+
+    // Slides live blocks down in address order; leaves one hole at the top.
+    private void compact() {
+        compactions++;
+
+        long cursor = 0;
+        TreeMap<Long, Long> moved = new TreeMap<>();
+        for (Long handle : liveByAddr.values()) {
+            Block b = blocks.get(handle);
+            b.addr = cursor;
+            moved.put(cursor, handle);
+            cursor += b.size;
+        }
+        liveByAddr.clear();
+        liveByAddr.putAll(moved);
+
+        byAddr.clear();
+        bySize.clear();
+        if (cursor < capacity) addHole(cursor, capacity - cursor);
+    }
+
+    private void addHole(long addr, long size) {
+        Hole h = new Hole(addr, size);
+        byAddr.insert(h);
+        bySize.add(h);
+    }
+
+    private void removeHole(Hole h) {
+        byAddr.remove(h.addr);
+        bySize.remove(h);
+    }
+
+    @Override
+    public String getName() {
+        return (bestFit ? "best-fit" : "first-fit") + (compactOnFail ? "+compact" : "");
+    }
+
+    @Override public long getCapacity()      { return capacity; }
+    @Override public long getUsed()          { return used; }
+    @Override public long getLargestFree()   { return bySize.isEmpty() ? 0 : bySize.last().size; }
+    @Override public long getMaxAllocation() { return capacity; }
+    @Override public long getFailedFits()    { return failedFits; }
+    @Override public long getCompactions()   { return compactions; }
+
+    /**
+     * Treap of holes keyed by address; each node caches the largest hole
+     * size in its subtree so first-fit can skip whole subtrees.
+     */
+    private static final class HoleTreap {
+
+        private static final class Node {
+            final Hole hole;
+            final int prio;
+            Node left, right;
+            long max;
+
+            Node(Hole h, int prio) {
+                this.hole = h;
+                this.prio = prio;
+                this.max = h.size;
+            }
+        }
+
+        private final Random rnd = new Random(361); // fixed seed: deterministic shape
+        private Node root = null;
+
+        // split results
+        private Node splitL, splitR;
+
+        void clear() { root = null; }
+
+        void insert(Hole h) {
+            split(root, h.addr);
+            Node l = splitL, r = splitR;
+            root = merge(merge(l, new Node(h, rnd.nextInt())), r);
+        }
+
+        void remove(long addr) {
+            split(root, addr);
+            Node l = splitL;
+            split(splitR, addr + 1);
+            root = merge(l, splitR);
+        }
+
+        // greatest hole with addr < key
+        Hole floor(long key) {
+            Hole best = null;
+            Node n = root;
+            while (n != null) {
+                if (n.hole.addr < key) { best = n.hole; n = n.right; }
+                else n = n.left;
+            }
+            return best;
+        }
+
+        // smallest hole with addr >= key
+        Hole ceiling(long key) {
+            Hole best = null;
+            Node n = root;
+            while (n != null) {
+                if (n.hole.addr >= key) { best = n.hole; n = n.left; }
+                else n = n.right;
+            }
+            return best;
+        }
+
+        // lowest-address hole with size >= need
+        Hole firstFit(long need) {
+            Node n = root;
+            if (n == null || n.max < need) return null;
+            while (true) {
+                if (n.left != null && n.left.max >= need) n = n.left;
+                else if (n.hole.size >= need) return n.hole;
+                else n = n.right;
+            }
+        }
+
+        // splits t into keys < key (splitL) and keys >= key (splitR)
+        private void split(Node t, long key) {
+            if (t == null) { splitL = null; splitR = null; return; }
+            if (t.hole.addr < key) {
+                split(t.right, key);
+                t.right = splitL;
+                update(t);
+                splitL = t;
+            } else {
+                split(t.left, key);
+                t.left = splitR;
+                update(t);
+                splitR = t;
+            }
+        }
+
+        private Node merge(Node a, Node b) {
+            if (a == null) return b;
+            if (b == null) return a;
+            if (a.prio > b.prio) {
+                a.right = merge(a.right, b);
+                update(a);
+                return a;
+            }
+            b.left = merge(a, b.left);
+            update(b);
+            return b;
+        }
+
+        private static void update(Node n) {
+            long m = n.hole.size;
+            if (n.left != null && n.left.max > m) m = n.left.max;
+            if (n.right != null && n.right.max > m) m = n.right.max;
+            n.max = m;
+        }
+    }
+}
@@ -0,0 +1,209 @@
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * JobMetrics
+ * ----------
+ * Streaming per-job statistics for one PrManager. Every finished job is
+ * recorded once, into fixed-size histograms:
+ *
+ *   turnaround  completion - arrival
+ *   waiting     turnaround - original burst
+ *   response    first dispatch - arrival
+ *   hold        time spent in HQ1 / HQ2
+ *   slices      number of CPU slices the job needed
+ *
+ * Jobs with a deadline are also counted on their own: how many finished,
+ * how many finished late, the lateness (completion - deadline, 0 when on
+ * time) and how many were turned away by the deadline admission test.
+ * The deadline part of the report only appears once such jobs exist.
+ *
+ * Memory does not grow with the number of jobs, so long runs can drop the
+ * per-job FinishedTable rows and still report percentiles.
+ */
+public class JobMetrics {
+
+    private final LogHistogram turnaround = new LogHistogram();
+    private final LogHistogram waiting    = new LogHistogram();
+    private final LogHistogram response   = new LogHistogram();
+    private final LogHistogram hold       = new LogHistogram();
+    private final LogHistogram slices     = new LogHistogram();
+    private final LogHistogram lateness   = new LogHistogram();   // deadline jobs only
+
+    private long missed = 0;     // deadline jobs that finished after their deadline
+    private long rejected = 0;   // deadline jobs refused at admission
+
+    public void record(long turnaroundTime, long waitingTime, long responseTime,
+                       long holdTime, long sliceCount) {
+        turnaround.record(turnaroundTime);
+        waiting.record(waitingTime);
+        response.record(responseTime);
+        hold.record(holdTime);
+        slices.record(sliceCount);
+    }
+
+    // A finished job that had a deadline; 'late' = completion - deadline
+    public void recordDeadline(long late) {
+        lateness.record(Math.max(0, late));
+        if (late > 0) missed++;
+    }
+
+    public void recordRejected() {
+        rejected++;
+    }
+
+    public void add(JobMetrics o) {
+        turnaround.add(o.turnaround);
+        waiting.add(o.waiting);
+        response.add(o.response);
+        hold.add(o.hold);
+        slices.add(o.slices);
+        lateness.add(o.lateness);
+        missed += o.missed;
+        rejected += o.rejected;
+    }
+
+    public long getCompleted() { return turnaround.getCount(); }
+
+    public void writeTo(DataOutput out) throws IOException {
+        for (LogHistogram h : all()) h.writeTo(out);
+        out.writeLong(missed);
+        out.writeLong(rejected);
+    }
+
+    public void readFrom(DataInput in) throws IOException {
+        for (LogHistogram h : all()) h.readFrom(in);
+        missed = in.readLong();
+        rejected = in.readLong();
+    }
+
+    private LogHistogram[] all() {
+        return new LogHistogram[]{turnaround, waiting, response, hold, slices, lateness};
+    }
+
+    public LogHistogram getTurnaround() { return turnaround; }
+    public LogHistogram getWaiting()    { return waiting; }
+    public LogHistogram getResponse()   { return response; }
+    public LogHistogram getHold()       { return hold; }
+    public LogHistogram getSlices()     { return slices; }
+    public LogHistogram getLateness()   { return lateness; }
+
+    public long getDeadlineJobs() { return lateness.getCount(); }
+    public long getMissed()       { return missed; }
+    public long getRejected()     { return rejected; }
+
+    // missed / finished deadline jobs, in hundredths of a percent
+    public long getMissRatioHundredths() {
+        long n = lateness.getCount();
+        return n == 0 ? 0 : missed * 10_000 / n;
+    }
+
+    // ===== report output =====
+
+    /**
+     * Text block for a D display: one line per metric with
+     * mean / p50 / p90 / p99 / p99.9 / max, then throughput and utilization.
+     * 'elapsed' = time since the configuration started, 'busy' = CPU ticks
+     * over 'cores' cores.
+     */
+    public void appendSummary(StringBuilder sb, long elapsed, long busy, int cores) {
+        String nl = ReportWriter.NL;
+        sb.append("Job Metrics (streaming)                                 ").append(nl);
+        sb.append("--------------------------------------------------------").append(nl);
+        sb.append("  Metric         mean      p50      p90      p99    p99.9      max").append(nl);
+        appendRow(sb, "Turnaround", turnaround);
+        appendRow(sb, "Waiting", waiting);
+        appendRow(sb, "Response", response);
+        appendRow(sb, "Hold", hold);
+        appendRow(sb, "Slices", slices);
+        if (hasDeadlines()) {
+            appendRow(sb, "Lateness", lateness);
+            sb.append("  Deadlines: ").append(lateness.getCount())
+              .append(" finished , missed ").append(missed).append(" (");
+            hundredths(sb, getMissRatioHundredths()).append("%) , rejected ").append(rejected);
+            sb.append(nl);
+        }
+
+        sb.append("  Finished: ").append(getCompleted());
+        sb.append(" , Throughput: ");
+        hundredths(sb, elapsed <= 0 ? 0 : getCompleted() * 100_000 / elapsed).append(" jobs/1000t");
+        sb.append(" , CPU util: ");
+        hundredths(sb, elapsed <= 0 ? 0 : busy * 10_000 / (elapsed * Math.max(1, cores))).append('%');
+        sb.append(nl).append(nl);
+    }
+
+    /**
+     * Machine-readable form: one JSON object (no trailing newline).
+     */
+    public void appendJson(StringBuilder sb, long time, long elapsed, long busy, int cores) {
+        sb.append("{\"time\":").append(time)
+          .append(",\"finished\":").append(getCompleted())
+          .append(",\"throughputPer1000\":");
+        hundredths(sb, elapsed <= 0 ? 0 : getCompleted() * 100_000 / elapsed);
+        sb.append(",\"cpuUtilPercent\":");
+        hundredths(sb, elapsed <= 0 ? 0 : busy * 10_000 / (elapsed * Math.max(1, cores)));
+        appendJson(sb, "turnaround", turnaround);
+        appendJson(sb, "waiting", waiting);
+        appendJson(sb, "response", response);
+        appendJson(sb, "hold", hold);
+        appendJson(sb, "slices", slices);
+        if (hasDeadlines()) {
+            sb.append(",\"deadline\":{\"finished\":").append(lateness.getCount())
+              .append(",\"missed\":").append(missed)
+              .append(",\"rejected\":").append(rejected)
+              .append(",\"missRatioPercent\":");
+            hundredths(sb, getMissRatioHundredths());
+            appendJson(sb, "lateness", lateness);
+            sb.append('}');
+        }
+        sb.append('}');
+    }
+
+    private boolean hasDeadlines() {
+        return lateness.getCount() > 0 || rejected > 0;
+    }
+
+    private static void appendRow(StringBuilder sb, String name, LogHistogram h) {
+        int start = sb.length();
+        ReportWriter.padTo(sb.append("  ").append(name), start, 12);
+
+        int cell = sb.length();
+        hundredths(sb, Math.round(h.getMean() * 100));
+        alignRight(sb, cell, 9);
+        long[] vs = {h.getPercentile(50), h.getPercentile(90), h.getPercentile(99),
+                     h.getPercentile(99.9), h.getMax()};
+        for (long v : vs) {
+            cell = sb.length();
+            alignRight(sb.append(v), cell, 9);
+        }
+        sb.append(ReportWriter.NL);
+    }
+
+    // Shifts the cell that starts at 'cell' right to fill 'width' chars
+    private static void alignRight(StringBuilder sb, int cell, int width) {
+        for (int n = width - (sb.length() - cell); n > 0; n--) sb.insert(cell, ' ');
+    }
+
+    private static void appendJson(StringBuilder sb, String name, LogHistogram h) {
+        sb.append(",\"").append(name).append("\":{\"count\":").append(h.getCount())
+          .append(",\"mean\":");
+        hundredths(sb, Math.round(h.getMean() * 100));
+        sb.append(",\"p50\":").append(h.getPercentile(50))
+          .append(",\"p90\":").append(h.getPercentile(90))
+          .append(",\"p99\":").append(h.getPercentile(99))
+          .append(",\"p999\":").append(h.getPercentile(99.9))
+          .append(",\"max\":").append(h.getMax())
+          .append('}');
+    }
+
+    // v / 100 with two decimals, e.g. 12345 -> "123.45"
+    static StringBuilder hundredths(StringBuilder sb, long v) {
+        if (v < 0) {
+            sb.append('-');
+            v = -v;
+        }
+        long frac = v % 100;
+        return sb.append(v / 100).append('.').append(frac < 10 ? "0" : "").append(frac);
+    }
+}
@@ -0,0 +1,89 @@
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Locale;
+
+/**
+ * KerServices
+ * -----------
+ * Memory and device accounting behind PrManager's admission.
+ *
+ *   OtherKerServices   synchronized counters; optional placement model
+ *                      (MemoryAllocator) for memory
+ *   AtomicKerServices  both counters in one compare-and-set word, lock-free;
+ *                      counter memory model only
+ *
+ * create() picks one by name (--kernel=locked|atomic). A checkpoint starts
+ * with the implementation's KIND byte, so readFrom() rebuilds the same one.
+ */
+public interface KerServices {
+
+    byte KIND_LOCKED = 0;
+    byte KIND_ATOMIC = 1;
+
+    // ===== Memory =====
+    boolean allocateMemory(long amount);
+
+    void deallocateMemory(long amount);
+
+    // ===== Devices =====
+    boolean reserveDevices(int n);
+
+    void releaseDevices(int n);
+
+    // ===== Atomic convenience for a Process =====
+    boolean allocate(Process p);
+
+    void release(Process p);
+
+    // whether p fits an empty system at all
+    boolean canEverFit(Process p);
+
+    // null when memory is modelled as a single counter
+    MemoryAllocator getAllocator();
+
+    // ===== Introspection =====
+    long getFreeMemory();
+
+    int getFreeDevices();
+
+    long getMemInUse();
+
+    int getDevsInUse();
+
+    long getMemorySize();
+
+    int getNoDevs();
+
+    // ===== Checkpoint (counter memory model only) =====
+    void writeTo(DataOutput out) throws IOException;
+
+    static KerServices readFrom(DataInput in) throws IOException {
+        byte kind = in.readByte();
+        switch (kind) {
+            case KIND_LOCKED: return OtherKerServices.readFrom(in);
+            case KIND_ATOMIC: return AtomicKerServices.readFrom(in);
+            default: throw new IOException("unknown kernel services kind " + kind);
+        }
+    }
+
+    /**
+     * kind: "locked" (or null) = OtherKerServices, "atomic" = AtomicKerServices.
+     * allocator: placement model or null; the atomic kind has none.
+     */
+    static KerServices create(String kind, long memorySize, int noDevs, MemoryAllocator allocator) {
+        String k = kind == null ? "locked" : kind.trim().toLowerCase(Locale.ROOT);
+        switch (k) {
+            case "locked":
+                return new OtherKerServices(memorySize, noDevs, allocator);
+            case "atomic":
+                if (allocator != null) {
+                    throw new IllegalArgumentException("--kernel=atomic has no placement model (allocator "
+                            + allocator.getName() + ")");
+                }
+                return new AtomicKerServices(memorySize, noDevs);
+            default:
+                throw new IllegalArgumentException("Unknown kernel services: " + kind);
+        }
+    }
+}
@@ -0,0 +1,109 @@
+import java.util.ArrayDeque;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * KerServicesStress
+ * -----------------
+ * Multi-threaded over-commit check for the resource accounting.
+ *
+ * Producer threads allocate random (memory, devices) jobs, hold a few and
+ * release them in random order. Besides the allocator's own counters an
+ * independent ledger is kept: a thread adds a job to the ledger only after
+ * allocate() succeeded and removes it before release(), so the ledger is
+ * always <= what the allocator really has handed out. If the ledger ever
+ * exceeds capacity, the allocator over-committed. A monitor thread also
+ * checks the allocator's counters and both must be back at zero at the end.
+ *
+ * Usage: java KerServicesStress [threads] [opsPerThread]
+ * Runs AtomicKerServices and, for comparison, the synchronized OtherKerServices.
+ */
+public class KerServicesStress {
+
+    private static final long MEM  = 1_000;
+    private static final int  DEVS = 8;
+
+    public static void main(String[] args) throws InterruptedException {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+        int ops = args.length > 1 ? Integer.parseInt(args[1]) : 2_000_000;
+
+        boolean ok = run("AtomicKerServices", new AtomicKerServices(MEM, DEVS), threads, ops);
+        ok &= run("OtherKerServices ", new OtherKerServices(MEM, DEVS), threads, ops);
+
+        System.out.println(ok ? "OK: no over-commit" : "FAILED");
+        if (!ok) System.exit(1);
+    }
+
+    private static boolean run(String name, KerServices oks, int threads, int ops)
+            throws InterruptedException {
+        AtomicLong ledgerMem = new AtomicLong();
+        AtomicLong ledgerDevs = new AtomicLong();
+        AtomicLong successes = new AtomicLong();
+        AtomicBoolean violated = new AtomicBoolean(false);
+        AtomicBoolean done = new AtomicBoolean(false);
+
+        Thread monitor = new Thread(() -> {
+            while (!done.get()) {
+                long m = oks.getMemInUse();
+                int d = oks.getDevsInUse();
+                if (m > MEM || d > DEVS || m < 0 || d < 0) violated.set(true);
+            }
+        });
+
+        CountDownLatch start = new CountDownLatch(1);
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            workers[t] = new Thread(() -> {
+                ThreadLocalRandom rnd = ThreadLocalRandom.current();
+                ArrayDeque<Process> held = new ArrayDeque<>();
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+
+                for (int i = 0; i < ops; i++) {
+                    if (!held.isEmpty() && (held.size() > 4 || rnd.nextBoolean())) {
+                        Process p = rnd.nextBoolean() ? held.pollFirst() : held.pollLast();
+                        ledgerMem.addAndGet(-p.getMemoryReq());
+                        ledgerDevs.addAndGet(-p.getDevReq());
+                        oks.release(p);
+                    } else {
+                        Process p = new Process(i, 0, 1, 1, 1 + rnd.nextInt(300), rnd.nextInt(4), 0);
+                        if (oks.allocate(p)) {
+                            successes.incrementAndGet();
+                            if (ledgerMem.addAndGet(p.getMemoryReq()) > MEM) violated.set(true);
+                            if (ledgerDevs.addAndGet(p.getDevReq()) > DEVS) violated.set(true);
+                            held.addLast(p);
+                        }
+                    }
+                }
+                for (Process p : held) {
+                    ledgerMem.addAndGet(-p.getMemoryReq());
+                    ledgerDevs.addAndGet(-p.getDevReq());
+                    oks.release(p);
+                }
+            });
+            workers[t].start();
+        }
+
+        monitor.start();
+        long t0 = System.nanoTime();
+        start.countDown();
+        for (Thread w : workers) w.join();
+        long t1 = System.nanoTime();
+        done.set(true);
+        monitor.join();
+
+        boolean clean = oks.getMemInUse() == 0 && oks.getDevsInUse() == 0;
+        boolean ok = !violated.get() && clean;
+
+        System.out.printf("%s threads=%d ops=%d successes=%d  %.0f ops/s  overcommit=%s  leftover=%s%n",
+                name, threads, (long) threads * ops, successes.get(),
+                (double) threads * ops / ((t1 - t0) / 1e9),
+                violated.get() ? "YES" : "no", clean ? "none" : oks.toString());
+        return ok;
+    }
+}
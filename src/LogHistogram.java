@@ -0,0 +1,122 @@
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * LogHistogram
+ * ------------
+ * Constant-memory recorder for non-negative long values, in the style of
+ * HdrHistogram: values below 2^SUB_BITS are counted exactly; above that,
+ * each power-of-two range is split into 2^(SUB_BITS-1) equal buckets, so
+ * any reported percentile is within 1 / 2^(SUB_BITS-1) (< 0.8%) of the
+ * true value. Count, min, max and mean are exact.
+ *
+ * Memory is fixed (about 58 KB) regardless of how many values are recorded.
+ */
+public class LogHistogram {
+
+    private static final int SUB_BITS = 8;
+    private static final int SUB_COUNT = 1 << SUB_BITS;         // exact range
+    private static final int HALF = SUB_COUNT >> 1;             // buckets per power of two
+    private static final int BUCKETS = SUB_COUNT + (64 - SUB_BITS) * HALF;
+
+    private final long[] counts = new long[BUCKETS];
+    private long total = 0;
+    private long sum = 0;
+    private long min = Long.MAX_VALUE;
+    private long max = 0;
+
+    public void record(long v) {
+        if (v < 0) v = 0;
+        counts[indexOf(v)]++;
+        total++;
+        sum += v;
+        if (v < min) min = v;
+        if (v > max) max = v;
+    }
+
+    // Adds every value recorded in 'o' (e.g. several sections into one run)
+    public void add(LogHistogram o) {
+        for (int i = 0; i < BUCKETS; i++) counts[i] += o.counts[i];
+        total += o.total;
+        sum += o.sum;
+        if (o.total > 0) {
+            min = Math.min(min, o.min);
+            max = Math.max(max, o.max);
+        }
+    }
+
+    public long getCount() { return total; }
+    public long getMin()   { return total == 0 ? 0 : min; }
+    public long getMax()   { return max; }
+    public long getSum()   { return sum; }
+
+    public double getMean() {
+        return total == 0 ? 0 : (double) sum / total;
+    }
+
+    /**
+     * Nearest-rank percentile, q in [0, 100]. Returns the highest value
+     * of the bucket holding that rank (never above the recorded max).
+     */
+    public long getPercentile(double q) {
+        if (total == 0) return 0;
+        long rank = (long) Math.ceil(q / 100.0 * total);
+        rank = Math.max(1, Math.min(total, rank));
+
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank) return Math.min(max, highestIn(i));
+        }
+        return max;
+    }
+
+    // ===== checkpoint: summary, then only the non-empty buckets =====
+
+    public void writeTo(DataOutput out) throws IOException {
+        out.writeLong(total);
+        out.writeLong(sum);
+        out.writeLong(min);
+        out.writeLong(max);
+        int used = 0;
+        for (long c : counts) if (c != 0) used++;
+        out.writeInt(used);
+        for (int i = 0; i < BUCKETS; i++) {
+            if (counts[i] != 0) {
+                out.writeShort(i);
+                out.writeLong(counts[i]);
+            }
+        }
+    }
+
+    // replaces the contents with what writeTo wrote
+    public void readFrom(DataInput in) throws IOException {
+        Arrays.fill(counts, 0);
+        total = in.readLong();
+        sum = in.readLong();
+        min = in.readLong();
+        max = in.readLong();
+        int used = in.readInt();
+        for (int k = 0; k < used; k++) {
+            int i = in.readUnsignedShort();
+            counts[i] = in.readLong();
+        }
+    }
+
+    // ===== bucket math =====
+
+    private static int indexOf(long v) {
+        if (v < SUB_COUNT) return (int) v;
+        int shift = 63 - Long.numberOfLeadingZeros(v) - (SUB_BITS - 1); // >= 1
+        return SUB_COUNT + (shift - 1) * HALF + (int) ((v >>> shift) - HALF);
+    }
+
+    private static long highestIn(int i) {
+        if (i < SUB_COUNT) return i;
+        int shift = (i - SUB_COUNT) / HALF + 1;
+        long low = (long) (HALF + (i - SUB_COUNT) % HALF) << shift;
+        return low + (1L << shift) - 1;
+    }
+}
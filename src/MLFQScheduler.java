@@ -0,0 +1,192 @@
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.LinkedList;
+import java.util.function.Consumer;
+
+/**
+ * MLFQScheduler
+ * -------------
+ * Multilevel feedback queue. New jobs start at level 0 (highest). A job
+ * that uses its whole quantum drops one level; the lowest level is plain
+ * RR with the last quantum. Every 'boostEvery' decisions all jobs go back
+ * to level 0 so long jobs cannot starve (0 disables the boost).
+ *
+ * Ready set: one FIFO ring per level; add O(1), select O(levels).
+ * Each job's level is kept here, by PID, for jobs below level 0 only,
+ * together with the boost epoch it was set in; a level from an older
+ * epoch counts as 0, so a boost is just epoch++. A ready set that sees a
+ * new epoch sets its rings aside as one level-0 batch (in level order)
+ * and serves it before anything added later: O(levels), not O(jobs).
+ * A new section starts everyone at level 0 again.
+ */
+public class MLFQScheduler extends Scheduler {
+
+    private final int[] quanta;     // quantum per level, level 0 first
+    private final int boostEvery;
+    private long decisions = 0;
+    private long epoch = 0;                      // boosts so far
+    private final PidMap level = new PidMap();  // pid -> epoch * levels + level (level > 0)
+
+    public MLFQScheduler(int[] quanta, int boostEvery) {
+        if (quanta == null || quanta.length == 0) quanta = new int[]{8, 16, 32};
+        this.quanta = new int[quanta.length];
+        for (int i = 0; i < quanta.length; i++) this.quanta[i] = Math.max(1, quanta[i]);
+        this.boostEvery = Math.max(0, boostEvery);
+    }
+
+    public MLFQScheduler() {
+        this(new int[]{8, 16, 32}, 200);
+    }
+
+    public int getLevels() { return quanta.length; }
+
+    @Override
+    public Process selectNextProcess(Queue readyQ) {
+        decisions++;
+        if (boostEvery > 0 && decisions % boostEvery == 0) {
+            // priority boost: every level set before now reads as 0
+            epoch++;
+        }
+        return readyQ.dequeue();
+    }
+
+    @Override
+    public int computeTimeSlice(Process selected, Queue readyQ) {
+        int lvl = levelOf(selected);
+        int q = quanta[lvl];
+
+        // it will use the whole quantum -> it comes back one level lower
+        if (selected.getBurstTime() > q && lvl + 1 < quanta.length) {
+            level.put(selected.getPID(), epoch * quanta.length + lvl + 1);
+        }
+        return q;
+    }
+
+    @Override
+    public void onComplete(Process p, long now) {
+        level.remove(p.getPID());
+    }
+
+    @Override
+    public void onSection(long start) {
+        level.clear();
+    }
+
+    private int levelOf(Process p) {
+        long v = level.get(p.getPID(), 0);
+        return (v / quanta.length == epoch) ? (int) (v % quanta.length) : 0;
+    }
+
+    @Override
+    public void saveState(DataOutput out) throws IOException {
+        out.writeLong(decisions);
+        out.writeLong(epoch);
+        level.writeTo(out);
+    }
+
+    @Override
+    public void loadState(DataInput in) throws IOException {
+        decisions = in.readLong();
+        epoch = in.readLong();
+        level.readFrom(in);
+    }
+
+    @Override
+    public QueueStore createReadyStore() {
+        return new LevelStore(quanta.length);
+    }
+
+    // ===== ready store =====
+
+    private final class LevelStore implements QueueStore {
+        private RingQueueStore[] levels;
+        private long seen = epoch;     // epoch 'levels' was filled in
+        // rings set aside by boosts, oldest first; all of it is level 0
+        private final ArrayDeque<RingQueueStore[]> boosted = new ArrayDeque<>();
+        private final ArrayDeque<RingQueueStore[]> spare = new ArrayDeque<>();
+        private int size = 0;
+
+        LevelStore(int n) {
+            levels = rings(n);
+        }
+
+        private RingQueueStore[] rings(int n) {
+            RingQueueStore[] r = new RingQueueStore[n];
+            for (int i = 0; i < n; i++) r[i] = new RingQueueStore();
+            return r;
+        }
+
+        // a boost happened since the last call: the current rings become one batch
+        private void sync() {
+            if (seen == epoch) return;
+            seen = epoch;
+            if (size == 0) return;
+            boosted.addLast(levels);
+            levels = spare.isEmpty() ? rings(levels.length) : spare.poll();
+        }
+
+        @Override
+        public void add(Process p) {
+            sync();
+            levels[levelOf(p)].add(p);
+            size++;
+        }
+
+        @Override
+        public Process poll() {
+            sync();
+            while (!boosted.isEmpty()) {
+                RingQueueStore[] b = boosted.peekFirst();
+                for (RingQueueStore l : b) {
+                    if (l.size() > 0) {
+                        size--;
+                        return l.poll();
+                    }
+                }
+                spare.addLast(boosted.pollFirst());
+            }
+            for (RingQueueStore l : levels) {
+                if (l.size() > 0) {
+                    size--;
+                    return l.poll();
+                }
+            }
+            return null;
+        }
+
+        @Override
+        public Process peek() {
+            sync();
+            for (RingQueueStore[] b : boosted) {
+                for (RingQueueStore l : b) {
+                    if (l.size() > 0) return l.peek();
+                }
+            }
+            for (RingQueueStore l : levels) {
+                if (l.size() > 0) return l.peek();
+            }
+            return null;
+        }
+
+        @Override
+        public int size() { return size; }
+
+        @Override
+        public LinkedList<Process> snapshot() {
+            LinkedList<Process> out = new LinkedList<>();
+            forEach(out::add);
+            return out;
+        }
+
+        // serving order: boosted batches first, then the current levels
+        @Override
+        public void forEach(Consumer<? super Process> action) {
+            for (RingQueueStore[] b : boosted) {
+                for (RingQueueStore l : b) l.forEach(action);
+            }
+            for (RingQueueStore l : levels) l.forEach(action);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+import java.util.LinkedList;
+import java.util.TreeSet;
+import java.util.function.Consumer;
+
+/**
+ * MemOrderedQueueStore
+ * --------------------
+ * Ordered store for HQ1: ascending memoryReq, ties broken by arrivalTime,
+ * and remaining ties by insertion order (same result as the old sorted
+ * LinkedList insert, which placed equal keys after the existing ones).
+ *
+ * Backed by a balanced tree, so add/poll are O(log n) and snapshot() walks
+ * the tree in order without sorting.
+ */
+public class MemOrderedQueueStore implements QueueStore {
+
+    private static final class Entry {
+        final Process p;
+        final long mem;
+        final long at;
+        final long seq;
+
+        Entry(Process p, long seq) {
+            this.p = p;
+            this.mem = p.getMemoryReq();
+            this.at = p.getArrivalTime();
+            this.seq = seq;
+        }
+    }
+
+    private final TreeSet<Entry> tree = new TreeSet<>((a, b) -> {
+        if (a.mem != b.mem) return Long.compare(a.mem, b.mem);
+        if (a.at != b.at) return Long.compare(a.at, b.at);
+        return Long.compare(a.seq, b.seq);
+    });
+
+    private long nextSeq = 0;
+
+    @Override
+    public void add(Process p) {
+        tree.add(new Entry(p, nextSeq++));
+    }
+
+    @Override
+    public Process poll() {
+        Entry e = tree.pollFirst();
+        return e == null ? null : e.p;
+    }
+
+    @Override
+    public Process peek() {
+        return tree.isEmpty() ? null : tree.first().p;
+    }
+
+    @Override
+    public int size() { return tree.size(); }
+
+    @Override
+    public LinkedList<Process> snapshot() {
+        LinkedList<Process> out = new LinkedList<>();
+        for (Entry e : tree) out.add(e.p);
+        return out;
+    }
+
+    @Override
+    public void forEach(Consumer<? super Process> action) {
+        for (Entry e : tree) action.accept(e.p);
+    }
+}
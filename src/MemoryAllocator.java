@@ -0,0 +1,65 @@
+import java.util.Locale;
+
+/**
+ * MemoryAllocator
+ * ---------------
+ * Placement model for OtherKerServices memory (AtomicKerServices has none). Without one, memory is a
+ * single counter and any request fits whenever enough total memory is free;
+ * with one, requests need an actual free block and can fail on fragmentation.
+ *
+ * allocate() returns an opaque handle (>= 0) that free() takes back;
+ * allocators that compact may move blocks, so callers never see addresses.
+ */
+public interface MemoryAllocator {
+
+    // handle >= 0, or -1 if no free block can hold 'size'
+    long allocate(long size);
+
+    void free(long handle);
+
+    String getName();
+
+    long getCapacity();
+
+    // memory held by live blocks, including rounding (internal fragmentation)
+    long getUsed();
+
+    long getLargestFree();
+
+    // biggest request that could ever succeed on an empty arena
+    long getMaxAllocation();
+
+    // requests that failed even though total free memory was enough
+    long getFailedFits();
+
+    long getCompactions();
+
+    // external fragmentation in percent: 1 - largestFree / totalFree
+    default long getFragmentationPercent() {
+        long free = getCapacity() - getUsed();
+        if (free <= 0) return 0;
+        return 100 - getLargestFree() * 100 / free;
+    }
+
+    /**
+     * Builds an allocator from a name:
+     *   firstfit, bestfit (optionally "+compact"), buddy, slab.
+     * Returns null for "counter" / null (the original single-counter model).
+     */
+    static MemoryAllocator create(String spec, long capacity) {
+        if (spec == null) return null;
+        String s = spec.trim().toLowerCase(Locale.ROOT);
+        boolean compact = s.endsWith("+compact");
+        if (compact) s = s.substring(0, s.length() - "+compact".length());
+
+        switch (s) {
+            case "counter":  return null;
+            case "firstfit": return new FreeListAllocator(capacity, false, compact);
+            case "bestfit":  return new FreeListAllocator(capacity, true, compact);
+            case "buddy":    return new BuddyAllocator(capacity);
+            case "slab":     return new SlabAllocator(capacity);
+            default:
+                throw new IllegalArgumentException("Unknown allocator: " + spec);
+        }
+    }
+}
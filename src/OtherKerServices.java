@@ -1,4 +1,17 @@
-public class OtherKerServices {
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * OtherKerServices
+ * ----------------
+ * Default KerServices (--kernel=locked): memory and device counters behind
+ * one monitor, with an optional MemoryAllocator placement model.
+ */
+public class OtherKerServices implements KerServices {
 
     private final long memorySize; // total memory available
     private final int noDevs;      // total I/O devices available
@@ -6,14 +19,32 @@ public class OtherKerServices {
     private long memInUse = 0;     // currently allocated memory
     private int devsInUse = 0;     // currently reserved devices
 
+    // Optional placement model; null = memory is a single counter
+    private final MemoryAllocator allocator;
+
+    // Blocks taken through allocateMemory(amount), by size, so that
+    // deallocateMemory(amount) can give one back (allocator mode only)
+    private final Map<Long, ArrayDeque<Long>> rawBlocks = new HashMap<>();
+
     public OtherKerServices(long memorySize, int noDevs) {
+        this(memorySize, noDevs, null);
+    }
+
+    public OtherKerServices(long memorySize, int noDevs, MemoryAllocator allocator) {
         this.memorySize = Math.max(0, memorySize);
         this.noDevs = Math.max(0, noDevs);
+        this.allocator = allocator;
     }
 
     // ===== Memory =====
     public synchronized boolean allocateMemory(long amount) {
         if (amount <= 0) return false;
+        if (allocator != null) {
+            long h = placeBlock(amount);
+            if (h < 0) return false;
+            rawBlocks.computeIfAbsent(amount, k -> new ArrayDeque<>()).push(h);
+            return true;
+        }
         if (memInUse + amount > memorySize) return false;
         memInUse += amount;
         return true;
@@ -21,9 +52,26 @@ public class OtherKerServices {
 
     public synchronized void deallocateMemory(long amount) {
         if (amount <= 0) return;
+        if (allocator != null) {
+            ArrayDeque<Long> hs = rawBlocks.get(amount);
+            if (hs != null && !hs.isEmpty()) freeBlock(hs.pop());
+            return;
+        }
         memInUse = Math.max(0, memInUse - amount);
     }
 
+    // allocator mode: memInUse mirrors what the allocator really holds
+    private long placeBlock(long amount) {
+        long h = allocator.allocate(amount);
+        memInUse = allocator.getUsed();
+        return h;
+    }
+
+    private void freeBlock(long handle) {
+        allocator.free(handle);
+        memInUse = allocator.getUsed();
+    }
+
     // ===== Devices =====
     public synchronized boolean reserveDevices(int n) {
         if (n < 0) return false;         // invalid
@@ -44,6 +92,17 @@ public class OtherKerServices {
         long mem = p.getMemoryReq();
         int dev = p.getDevReq();
 
+        if (allocator != null) {
+            if (mem <= 0 || !reserveDevices(dev)) return false;
+            long h = placeBlock(mem);
+            if (h < 0) {
+                releaseDevices(dev);
+                return false;
+            }
+            p.setMemHandle(h);
+            return true;
+        }
+
         if (!allocateMemory(mem)) return false;
         if (!reserveDevices(dev)) {
             deallocateMemory(mem);
@@ -54,13 +113,22 @@ public class OtherKerServices {
 
     public synchronized void release(Process p) {
         releaseDevices(p.getDevReq());
+        if (allocator != null) {
+            if (p.getMemHandle() >= 0) freeBlock(p.getMemHandle());
+            p.setMemHandle(-1);
+            return;
+        }
         deallocateMemory(p.getMemoryReq());
     }
 
     public boolean canEverFit(Process p) {
-        return p.getMemoryReq() <= memorySize && p.getDevReq() <= noDevs;
+        long maxMem = (allocator == null) ? memorySize : allocator.getMaxAllocation();
+        return p.getMemoryReq() <= maxMem && p.getDevReq() <= noDevs;
     }
 
+    // null when memory is modelled as a single counter
+    public MemoryAllocator getAllocator() { return allocator; }
+
     // ===== Introspection =====
     public synchronized long getFreeMemory() { return memorySize - memInUse; }
     public synchronized int getFreeDevices() { return noDevs - devsInUse; }
@@ -69,6 +137,27 @@ public class OtherKerServices {
     public long getMemorySize()              { return memorySize; }
     public int getNoDevs()                   { return noDevs; }
 
+    // ===== Checkpoint (counter memory model only) =====
+
+    public synchronized void writeTo(DataOutput out) throws IOException {
+        if (allocator != null) {
+            throw new IllegalStateException("checkpoint not supported with allocator " + allocator.getName());
+        }
+        out.writeByte(KIND_LOCKED);
+        out.writeLong(memorySize);
+        out.writeInt(noDevs);
+        out.writeLong(memInUse);
+        out.writeInt(devsInUse);
+    }
+
+    // after the KIND byte (see KerServices.readFrom)
+    static OtherKerServices readFrom(DataInput in) throws IOException {
+        OtherKerServices oks = new OtherKerServices(in.readLong(), in.readInt());
+        oks.memInUse = in.readLong();
+        oks.devsInUse = in.readInt();
+        return oks;
+    }
+
     @Override
     public synchronized String toString() {
         return "OtherKerServices{mem=" + memInUse + "/" + memorySize +
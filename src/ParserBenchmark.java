@@ -0,0 +1,111 @@
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * ParserBenchmark
+ * ---------------
+ * Throughput comparison of the two input paths:
+ *   - BufferedReader + SimulationController.parseCmd (String split, boxed fields)
+ *   - CommandReader (memory-mapped, primitive fields)
+ *
+ * Usage: java ParserBenchmark [inputFile | lineCount]
+ * With a number (default 5,000,000) a synthetic A/D trace is generated in a temp file.
+ * Both paths sum every field so neither can be optimized away.
+ */
+public class ParserBenchmark {
+
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) throws IOException {
+        Path file;
+        boolean temp = false;
+
+        if (args.length > 0 && !args[0].matches("\\d+")) {
+            file = Paths.get(args[0]);
+        } else {
+            int lines = args.length > 0 ? Integer.parseInt(args[0]) : 5_000_000;
+            file = generate(lines);
+            temp = true;
+        }
+
+        long bytes = Files.size(file);
+        System.out.printf("Input: %s (%.1f MB)%n", file, bytes / 1e6);
+
+        try {
+            for (int r = 1; r <= ROUNDS; r++) {
+                long t0 = System.nanoTime();
+                long[] a = runBufferedReader(file);
+                long t1 = System.nanoTime();
+                long[] b = runCommandReader(file);
+                long t2 = System.nanoTime();
+
+                if (a[0] != b[0] || a[1] != b[1]) {
+                    throw new IllegalStateException("parsers disagree: " + a[1] + " vs " + b[1]);
+                }
+
+                report(r, "BufferedReader", a[0], bytes, t1 - t0);
+                report(r, "CommandReader ", b[0], bytes, t2 - t1);
+            }
+        } finally {
+            if (temp) Files.deleteIfExists(file);
+        }
+    }
+
+    // returns {lines, checksum}
+    private static long[] runBufferedReader(Path file) throws IOException {
+        long lines = 0, sum = 0;
+        try (BufferedReader br = Files.newBufferedReader(file)) {
+            String line;
+            while ((line = br.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty()) continue;
+                lines++;
+                List<Long> v = SimulationController.parseCmd(line);
+                for (Long x : v) sum += x;
+            }
+        }
+        return new long[]{lines, sum};
+    }
+
+    private static long[] runCommandReader(Path file) throws IOException {
+        long lines = 0, sum = 0;
+        try (CommandReader in = new CommandReader(file)) {
+            while (in.next()) {
+                lines++;
+                int n = in.parseFields();
+                for (int i = 0; i < n; i++) sum += in.field(i);
+            }
+        }
+        return new long[]{lines, sum};
+    }
+
+    private static void report(int round, String name, long lines, long bytes, long nanos) {
+        double sec = nanos / 1e9;
+        System.out.printf("round %d  %s  %8.0f ms  %10.0f lines/s  %7.1f MB/s%n",
+                round, name, nanos / 1e6, lines / sec, bytes / 1e6 / sec);
+    }
+
+    private static Path generate(int lines) throws IOException {
+        Path f = Files.createTempFile("sched-bench", ".txt");
+        Random rnd = new Random(7);
+        try (PrintWriter w = new PrintWriter(new BufferedWriter(new FileWriter(f.toFile())))) {
+            w.println("C 1 M=1000 S=8");
+            long t = 2;
+            for (int j = 1; j < lines; j++) {
+                t += rnd.nextInt(4);
+                if (j % 1000 == 0) {
+                    w.println("D " + t);
+                } else {
+                    w.println("A " + t + " J=" + j + " M=" + (1 + rnd.nextInt(500))
+                            + " S=" + rnd.nextInt(4) + " R=" + (1 + rnd.nextInt(40))
+                            + " P=" + (1 + rnd.nextInt(2)));
+                }
+            }
+        }
+        return f;
+    }
+}
@@ -0,0 +1,114 @@
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * PidMap
+ * ------
+ * Map from PID to one long, for scheduling policies that keep per-job
+ * bookkeeping of their own (MLFQ level, fair-share vruntime) instead of
+ * a field on every Process.
+ *
+ * Open addressing in two parallel arrays with linear probing and
+ * backward-shift deletion: no boxing, no tombstones, O(1) expected per
+ * operation. PIDs are the J= ids of the input, unique among live jobs;
+ * Long.MIN_VALUE marks an empty slot.
+ */
+public final class PidMap {
+
+    private static final long EMPTY = Long.MIN_VALUE;
+
+    private long[] keys;
+    private long[] values;
+    private int size = 0;
+
+    public PidMap() {
+        keys = new long[16];
+        values = new long[16];
+        Arrays.fill(keys, EMPTY);
+    }
+
+    public int size() { return size; }
+
+    public long get(long pid, long missing) {
+        int mask = keys.length - 1;
+        for (int i = slot(pid, mask); ; i = (i + 1) & mask) {
+            if (keys[i] == pid) return values[i];
+            if (keys[i] == EMPTY) return missing;
+        }
+    }
+
+    public void put(long pid, long value) {
+        int mask = keys.length - 1;
+        int i = slot(pid, mask);
+        while (keys[i] != EMPTY && keys[i] != pid) i = (i + 1) & mask;
+        if (keys[i] == EMPTY) {
+            keys[i] = pid;
+            if (++size * 4 > keys.length * 3) {
+                values[i] = value;
+                grow();
+                return;
+            }
+        }
+        values[i] = value;
+    }
+
+    public void remove(long pid) {
+        int mask = keys.length - 1;
+        int i = slot(pid, mask);
+        while (keys[i] != pid) {
+            if (keys[i] == EMPTY) return;
+            i = (i + 1) & mask;
+        }
+        size--;
+        // shift later members of the probe run back so lookups never stop early
+        for (int j = (i + 1) & mask; keys[j] != EMPTY; j = (j + 1) & mask) {
+            int home = slot(keys[j], mask);
+            if (((j - home) & mask) >= ((j - i) & mask)) {
+                keys[i] = keys[j];
+                values[i] = values[j];
+                i = j;
+            }
+        }
+        keys[i] = EMPTY;
+    }
+
+    public void clear() {
+        Arrays.fill(keys, EMPTY);
+        size = 0;
+    }
+
+    private void grow() {
+        long[] k = keys, v = values;
+        keys = new long[k.length * 2];
+        values = new long[k.length * 2];
+        Arrays.fill(keys, EMPTY);
+        size = 0;
+        for (int i = 0; i < k.length; i++) {
+            if (k[i] != EMPTY) put(k[i], v[i]);
+        }
+    }
+
+    private static int slot(long pid, int mask) {
+        long h = pid * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+
+    // ===== checkpoint =====
+
+    public void writeTo(DataOutput out) throws IOException {
+        out.writeInt(size);
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] == EMPTY) continue;
+            out.writeLong(keys[i]);
+            out.writeLong(values[i]);
+        }
+    }
+
+    public void readFrom(DataInput in) throws IOException {
+        clear();
+        int n = in.readInt();
+        for (int i = 0; i < n; i++) put(in.readLong(), in.readLong());
+    }
+}
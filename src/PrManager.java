@@ -1,52 +1,204 @@
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.invoke.VarHandle;
 import java.util.*;
+import java.util.function.Consumer;
 
 public class PrManager {
 
     private long internalClock;
-    private final OtherKerServices oks;
+    private final KerServices oks;
 
     // Queues per UML
     private final Queue SUBMIT = new Queue("SUBMIT");
-    private final Queue HQ1    = new Queue("HQ1");   // ascending mem
-    private final Queue HQ2    = new Queue("HQ2");   // FIFO
-    private final Queue READY  = new Queue("READY"); // FIFO for RR
+    private Queue HQ1          = new Queue("HQ1");   // ascending mem
+    private Queue HQ2          = new Queue("HQ2");   // FIFO
 
-    // CPU running state
-    private Process running = null;
-    private long runningUntil = Long.MAX_VALUE;
-    private long lastDispatchAt = 0;
+    // ===== CPU CORES =====
 
-    private Scheduler scheduler = new DRoundRobinScheduler();
+    /**
+     * One simulated CPU: its own READY queue, running job and counters.
+     * With a single core this is exactly the original READY + running state.
+     */
+    private static class Core {
+        final int id;
+        QueueStore ready = new Queue("READY"); // replaced by the policy's own set in setScheduler
+
+        // running state
+        Process running = null;
+        long runningUntil = Long.MAX_VALUE;
+        long lastDispatchAt = 0;
+
+        // metrics
+        long busyTime = 0;     // ticks spent on finished slices
+        long dispatches = 0;
+        long completions = 0;
+        long steals = 0;       // jobs taken from another core's READY
+        long preemptions = 0;  // slices cut short by an arriving job
+
+        Core(int id) { this.id = id; }
+    }
+
+    private final Core[] cores;
+
+    // Idle cores and cores with a non-empty READY, as bit sets: picking
+    // a core is a word scan (one word up to 64 cores), not a loop over cores.
+    private final BitSet idleCores = new BitSet();
+    private final BitSet coresWithReady = new BitSet();
+    private int readyJobs = 0;     // jobs over all READY queues
+    private int placeCursor = 0;   // round-robin placement when no core is idle
+    private int stealCursor = 0;   // where the next steal starts looking
+
+    private SchedulingPolicy scheduler = new DRoundRobinScheduler();
+
+    // Discrete-event core: pending CPU, arrival, display and config events
+    private final EventQueue events = new EventQueue();
+    private SimEventListener listener = null;
+    private long runTarget = Long.MIN_VALUE; // target of the runUntil in progress
+
+    // ===== HOLD QUEUE ADMISSION =====
+
+    /**
+     * STRICT_HEAD: only the heads of HQ1 then HQ2 may be admitted (original behavior).
+     * BEST_FIT:    admit the largest waiting job that fits the free memory/devices,
+     *              HQ1 before HQ2; only re-checked after a release frees resources.
+     */
+    public enum AdmissionPolicy { STRICT_HEAD, BEST_FIT }
+
+    private AdmissionPolicy admissionPolicy = AdmissionPolicy.STRICT_HEAD;
+    private boolean resourcesFreed = false; // BEST_FIT: set by release, cleared by a scan
+
+    // ===== BATCHED SUBMIT ADMISSION =====
+
+    /**
+     * batchWindow >= 1: SUBMIT is not drained on every arrival. The first
+     * arrival opens a window; when it closes, batchWindow ticks later, all
+     * jobs that came in meanwhile are admitted together, the admitted set
+     * being chosen by BatchPacker (memory x devices) instead of arrival
+     * order. Jobs left out go to HQ1/HQ2 as in the greedy path.
+     * 0 = greedy, one job at a time (original behavior).
+     */
+    private long batchWindow = 0;
+    private boolean batchOpen = false;   // a BATCH_CLOSE event is pending
+    private final BatchPacker packer = new BatchPacker();
+    private Process[] batch = new Process[0];
+
+    // ===== DEADLINE ADMISSION =====
+
+    /**
+     * Test applied to jobs with a deadline as they leave SUBMIT:
+     * admitted now, would the job still finish in time? The estimate is
+     * the outstanding work ahead of it spread over the cores, plus its own
+     * burst. When the policy serves READY by deadline (EDF) only deadline
+     * work counts, otherwise all of it. The test never looks at later
+     * deadlines, so it is pessimistic, but O(cores).
+     *   OFF:    no test (original behavior)
+     *   REJECT: a job that would miss is dropped and counted as rejected
+     *   HOLD:   it goes to HQ1/HQ2 instead and is retested whenever the hold
+     *           queues are; it leaves only once it passes, or once nothing is
+     *           left ahead of it (waiting longer cannot help). Under
+     *           STRICT_HEAD a held head that fails blocks its queue, like a
+     *           head that does not fit.
+     */
+    public enum DeadlineAdmission { OFF, REJECT, HOLD }
+
+    private DeadlineAdmission deadlineAdmission = DeadlineAdmission.OFF;
+
+    // remaining burst of every admitted, unfinished job (running: as of its dispatch)
+    private long outstandingWork = 0;
+    private long outstandingDeadlineWork = 0;
 
     // ===== FINISHED JOB ACCOUNTING =====
 
-    private final Map<Long, Long> totalBurstByPid = new HashMap<>();
+    // original burst lives on the Process (getOriginalBurst), rows are columnar
+    private final FinishedTable finishedJobs = new FinishedTable();
+    private boolean keepFinishedRows = true; // false: histograms only, constant memory
+    private long finishedCount = 0;
 
-    private static class FinishedJob {
-        long pid;
-        long arrivalTime;
-        long completionTime;
-        long turnaroundTime;
-        long waitingTime;
+    // opt-in binary record of every decision; null = off (one null check per hook)
+    private EventLog log = null;
 
-        FinishedJob(long pid, long at, long ct, long tat, long wt) {
-            this.pid = pid;
-            this.arrivalTime = at;
-            this.completionTime = ct;
-            this.turnaroundTime = tat;
-            this.waitingTime = wt;
-        }
-    }
+    // streaming percentiles (turnaround, waiting, response, hold, slices)
+    private final JobMetrics metrics = new JobMetrics();
+
+    // Generation counter for View (seqlock style): odd while the engine is
+    // changing state, even when it is at rest or inside a listener callback
+    private volatile long generation = 0;
 
-    private final List<FinishedJob> finishedJobs = new ArrayList<>();
+    public PrManager(long startTime, KerServices oks) {
+        this(startTime, oks, 1);
+    }
 
-    public PrManager(long startTime, OtherKerServices oks) {
+    public PrManager(long startTime, KerServices oks, int coreCount) {
         this.internalClock = 0;
         this.oks = oks;
+
+        this.cores = new Core[Math.max(1, coreCount)];
+        for (int i = 0; i < cores.length; i++) cores[i] = new Core(i);
+        idleCores.set(0, cores.length);
     }
 
-    public void setScheduler(Scheduler s) {
+    /**
+     * Installs the scheduling policy. READY sets are rebuilt with the
+     * policy's own structure and any waiting jobs are moved over.
+     */
+    public void setScheduler(SchedulingPolicy s) {
         this.scheduler = s;
+        for (Core c : cores) {
+            QueueStore q = s.newReadySet();
+            while (c.ready.size() > 0) q.add(c.ready.poll());
+            c.ready = q;
+        }
+    }
+
+    /**
+     * Switches the hold-queue admission policy.
+     * Jobs already waiting are moved into queues built for the new policy.
+     */
+    public void setAdmissionPolicy(AdmissionPolicy policy) {
+        if (policy == null || policy == admissionPolicy) return;
+        admissionPolicy = policy;
+
+        boolean bestFit = (policy == AdmissionPolicy.BEST_FIT);
+        HQ1 = rebuildHold(HQ1, "HQ1", bestFit ? new BestFitQueueStore(true) : null);
+        HQ2 = rebuildHold(HQ2, "HQ2", bestFit ? new BestFitQueueStore(false) : null);
+        resourcesFreed = true;
+    }
+
+    public AdmissionPolicy getAdmissionPolicy() {
+        return admissionPolicy;
+    }
+
+    // Batch-window admission (see BatchPacker); 0 turns it off
+    public void setBatchWindow(long window) {
+        this.batchWindow = Math.max(0, window);
+    }
+
+    public long getBatchWindow() {
+        return batchWindow;
+    }
+
+    public void setDeadlineAdmission(DeadlineAdmission mode) {
+        this.deadlineAdmission = mode == null ? DeadlineAdmission.OFF : mode;
+    }
+
+    public DeadlineAdmission getDeadlineAdmission() {
+        return deadlineAdmission;
+    }
+
+    // Packing totals, chosen plans vs greedy (batch-window mode only)
+    public BatchPacker getBatchPacker() {
+        return packer;
+    }
+
+    // Starts recording decisions into 'log' (null stops); the caller closes it
+    public void setEventLog(EventLog log) {
+        this.log = log;
     }
 
     // ============================================================
@@ -65,18 +217,96 @@ public class PrManager {
                                    long memReq,
                                    int devReq) {
 
-        Process p = new Process(pid, at, bt, priority, memReq, devReq, 0);
-
-        // store original burst for waiting-time calculation
-        totalBurstByPid.put(p.getPID(), p.getBurstTime());
+        beginChange();
+        submitArrival(new Process(pid, at, bt, priority, memReq, devReq, 0));
+        endChange();
+    }
 
+    private void submitArrival(Process p) {
         // reject impossible jobs (bigger than total system capacity)
         if (!oks.canEverFit(p)) {
+            if (log != null) log.record(internalClock, EventLog.REJECT, -1, p.getPID(), p.getMemoryReq());
             return;
         }
 
         // all arrivals first land in SUBMIT
         SUBMIT.enqueue(p);
+        if (log != null) log.record(internalClock, EventLog.ARRIVE, -1, p.getPID(), p.getBurstTime());
+    }
+
+    // ===== Event posting (discrete-event engine) =====
+
+    /**
+     * Posts an ARRIVAL event. Arrivals stamped in the past are delivered
+     * at the current clock, but keep their own arrival time.
+     */
+    public void postArrival(long pid,
+                            long at,
+                            long bt,
+                            int priority,
+                            long memReq,
+                            int devReq) {
+        postArrival(pid, at, bt, priority, memReq, devReq, 0);
+    }
+
+    // Same, with an absolute completion deadline (0 = none)
+    public void postArrival(long pid,
+                            long at,
+                            long bt,
+                            int priority,
+                            long memReq,
+                            int devReq,
+                            long deadline) {
+        postArrival(pid, at, bt, priority, memReq, devReq, deadline, 0);
+    }
+
+    // Same, with the owner group for fair-share scheduling (0 = default group)
+    public void postArrival(long pid,
+                            long at,
+                            long bt,
+                            int priority,
+                            long memReq,
+                            int devReq,
+                            long deadline,
+                            int group) {
+        Process p = new Process(pid, at, bt, priority, memReq, devReq, 0);
+        p.setDeadline(deadline);
+        p.setGroup(group);
+        events.push(Math.max(at, internalClock), EventQueue.ARRIVAL, p);
+    }
+
+    public void postDisplay(long t) {
+        events.push(Math.max(t, internalClock), EventQueue.DISPLAY, null);
+    }
+
+    public void postConfig(long t) {
+        events.push(Math.max(t, internalClock), EventQueue.CONFIG, null);
+    }
+
+    public void setEventListener(SimEventListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Processes every pending event with time <= target, then leaves the
+     * clock at target. Idle gaps are skipped in one step.
+     */
+    public void runUntil(long target) {
+        if (target < internalClock) return;
+
+        beginChange();
+        runTarget = target;
+        while (!events.isEmpty() && events.peekTime() <= target) {
+            long t = events.peekTime();
+            int type = events.peekType();
+            Object data = events.peekPayload();
+            events.pop();
+
+            internalClock = t;
+            handleEvent(type, data);
+        }
+        internalClock = target;
+        endChange();
     }
 
     public void cpuTimeAdvance(long duration) {
@@ -85,29 +315,55 @@ public class PrManager {
         dispatch(target);
     }
 
+    // Time until the earliest running slice ends (0 when every core is idle)
     public long getNextDecisionTime() {
-        if (running == null || runningUntil == Long.MAX_VALUE) return 0;
-        long dt = runningUntil - internalClock;
-        return Math.max(0, dt);
+        long next = Long.MAX_VALUE;
+        for (Core c : cores) {
+            if (c.running != null) next = Math.min(next, c.runningUntil);
+        }
+        if (next == Long.MAX_VALUE) return 0;
+        return Math.max(0, next - internalClock);
     }
 
+    // Job on core 0 (the only core in single-CPU mode)
     public long getRunningProcId() {
-        return (running == null) ? -1 : running.getPID();
+        Core c = cores[0];
+        return (c.running == null) ? -1 : c.running.getPID();
     }
 
     public void printSnapshot() {
         System.out.println("---- PR Snapshot @ " + internalClock + " ----");
-        System.out.println("READY : " + READY);
+        for (Core c : cores) {
+            String tag = cores.length == 1 ? "" : ("[" + c.id + "]");
+            System.out.println("READY" + tag + " : READY" + c.ready.snapshot());
+            System.out.println("RUN" + tag + "   : " + (c.running == null
+                    ? "idle"
+                    : ("PID " + c.running.getPID() + " until " + c.runningUntil)));
+        }
         System.out.println("HQ1   : " + HQ1);
         System.out.println("HQ2   : " + HQ2);
         System.out.println("SUBMIT: " + SUBMIT);
-        System.out.println("RUN   : " + (running == null
-                ? "idle"
-                : ("PID " + running.getPID() + " until " + runningUntil)));
         System.out.println(oks);
         System.out.println("-----------------------------------");
     }
 
+    // ===== Per-core metrics =====
+
+    public int getCoreCount() { return cores.length; }
+
+    // Busy ticks, including the elapsed part of a slice still running
+    public long getCoreBusyTime(int i) {
+        Core c = cores[i];
+        long inFlight = (c.running == null) ? 0 : Math.max(0, internalClock - c.lastDispatchAt);
+        return c.busyTime + inFlight;
+    }
+
+    public long getCoreDispatches(int i)  { return cores[i].dispatches; }
+    public long getCoreCompletions(int i) { return cores[i].completions; }
+    public long getCoreSteals(int i)      { return cores[i].steals; }
+    public long getCorePreemptions(int i) { return cores[i].preemptions; }
+    public int getCoreReadySize(int i)    { return cores[i].ready.size(); }
+
     // ============================================================
     //                      MAIN ENGINE
     // ============================================================
@@ -116,78 +372,324 @@ public class PrManager {
         if (target < internalClock) return;
 
         // admit anything pending in SUBMIT/HQs at the current time
+        beginChange();
+        admitAndSchedule(null);
+        endChange();
+        runUntil(target);
+    }
+
+    private void handleEvent(int type, Object data) {
+        switch (type) {
+            case EventQueue.SLICE_END:
+            case EventQueue.COMPLETION: {
+                Core c = (Core) data;
+                // stale: the slice was cut short by an arrival preemption
+                if (c.running == null || c.runningUntil != internalClock) break;
+                if (type == EventQueue.SLICE_END) skipRepeatSlices(c);
+                completeOrPreemptRunning(c);
+                admitAndSchedule(c);
+                break;
+            }
+
+            case EventQueue.ARRIVAL:
+                submitArrival((Process) data);
+                admitAndSchedule(null);
+                break;
+
+            case EventQueue.BATCH_CLOSE:
+                batchOpen = false;
+                admitBatch();
+                admitAndSchedule(null);
+                break;
+
+            // listeners run at rest: views taken inside them are stable
+            case EventQueue.DISPLAY:
+                if (listener != null) {
+                    endChange();
+                    listener.onDisplay(internalClock);
+                    beginChange();
+                }
+                break;
+
+            case EventQueue.CONFIG:
+                if (listener != null) {
+                    endChange();
+                    listener.onConfig(internalClock);
+                    beginChange();
+                }
+                break;
+
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Fast path for a job alone on its core. With nothing else pending,
+     * slice-by-slice execution would only preempt it and pick it again
+     * every repeatSlice() ticks, so those boundaries are skipped in one
+     * step: the slice that just ended and the clock are stretched to the
+     * last boundary before the next event (or the runUntil target), and
+     * the usual preempt + re-dispatch happens there, with the counters
+     * slice-by-slice execution would have reached. O(1) however long the
+     * job is. Off with an EventLog, which records every slice.
+     */
+    private void skipRepeatSlices(Core c) {
+        if (log != null || c.ready.size() > 0 || !SUBMIT.isEmpty()) return;
+        // each boundary retries the hold queues; only skip retries that are no-ops
+        // (a failed allocation still counts in the allocators' fit statistics)
+        boolean holdsIdle = (admissionPolicy == AdmissionPolicy.BEST_FIT)
+                ? !resourcesFreed
+                : HQ1.isEmpty() && HQ2.isEmpty();
+        if (!holdsIdle) return;
+
+        Process p = c.running;
+        long q = scheduler.repeatSlice(p);
+        if (q <= 0) return;
+
+        long left = getRemainingBurst(p) - (c.runningUntil - c.lastDispatchAt);
+        long last = events.isEmpty() ? runTarget : Math.min(runTarget, events.peekTime() - 1);
+        if (last <= internalClock) return;
+
+        // boundaries before completion, and those up to 'last'
+        long k = Math.min((left - 1) / q, (last - internalClock) / q);
+        if (k <= 0) return;
+
+        scheduler.onSlicesSkipped(p, k, internalClock);
+        p.redispatched(k);
+        c.dispatches += k;
+        c.runningUntil += k * q;
+        internalClock = c.runningUntil;
+    }
+
+    /**
+     * Admission pass at the current clock, then every idle core that can
+     * get work dispatches its next READY job (stealing one from another
+     * core's READY if its own is empty) and posts its SLICE_END / COMPLETION.
+     * 'preferred' (the core that just freed up, may be null) goes first.
+     */
+    private void admitAndSchedule(Core preferred) {
         drainSubmitToSystem();
         tryAdmitFromHolds();
 
-        if (running == null && !READY.isEmpty()) {
-            scheduleNext();
-            long rem = getRemainingBurst(running);
-            int slice = scheduler.computeTimeSlice(running, READY);
-            runningUntil = internalClock + Math.max(1, (int) Math.min(rem, slice));
+        if (preferred != null && preferred.running == null && preferred.ready.size() > 0) {
+            scheduleNext(preferred);
         }
 
-        while (true) {
+        while (readyJobs > 0) {
+            int i = idleCores.nextSetBit(0);
+            if (i < 0) break;
 
-            if (running == null || runningUntil > target) {
-                internalClock = target;
-                break;
-            }
+            Core c = cores[i];
+            if (c.ready.size() == 0 && !steal(c)) break;
+            if (!scheduleNext(c)) break;
+        }
+    }
 
-            internalClock = runningUntil;
+    // Moves one job from the next core with a non-empty READY to 'thief'
+    private boolean steal(Core thief) {
+        int v = coresWithReady.nextSetBit(stealCursor);
+        if (v < 0) v = coresWithReady.nextSetBit(0);
+        if (v < 0) return false;
 
-            completeOrPreemptRunning();
+        Core victim = cores[v];
+        Process p = victim.ready.poll();
+        readyChanged(victim);
+        thief.ready.add(p);
+        readyChanged(thief);
 
-            drainSubmitToSystem();
-            tryAdmitFromHolds();
+        thief.steals++;
+        if (log != null) log.record(internalClock, EventLog.STEAL, thief.id, p.getPID(), v);
+        stealCursor = (v + 1) % cores.length;
+        return true;
+    }
 
-            if (running == null && !READY.isEmpty()) {
-                scheduleNext();
-                long rem = getRemainingBurst(running);
-                int slice = scheduler.computeTimeSlice(running, READY);
-                runningUntil = internalClock + Math.max(1, (int) Math.min(rem, slice));
-            }
+    /**
+     * Puts an admitted job on a READY set: an idle core's if there is one,
+     * otherwise round-robin over the cores. If the chosen core is busy the
+     * policy may preempt its running job in favour of the new one.
+     * 'from' = 0 (SUBMIT), 1 (HQ1) or 2 (HQ2), for the event log.
+     */
+    private void enqueueReady(Process p, int from) {
+        Core c;
+        int i = idleCores.nextSetBit(0);
+        if (i >= 0 && cores[i].ready.size() == 0) {
+            c = cores[i];
+        } else {
+            c = cores[placeCursor];
+            placeCursor = (placeCursor + 1) % cores.length;
+        }
+        p.leaveHold(internalClock);
+        outstandingWork += p.getBurstTime();
+        if (p.hasDeadline()) outstandingDeadlineWork += p.getBurstTime();
+        c.ready.add(p);
+        readyJobs++;
+        readyChanged(c);
+        scheduler.onEnqueue(p, internalClock);
+        if (log != null) log.record(internalClock, EventLog.ADMIT, c.id, p.getPID(), from);
+
+        if (c.running != null) {
+            long left = getRemainingBurst(c.running) - (internalClock - c.lastDispatchAt);
+            if (scheduler.shouldPreempt(c.running, left, p)) preemptNow(c);
         }
     }
 
+    /**
+     * Stops core c's running job at the current clock and puts it back on
+     * READY. Its pending SLICE_END / COMPLETION stays in the event queue and
+     * is dropped as stale when it comes up (runningUntil no longer matches).
+     * The core is idle afterwards; admitAndSchedule() redispatches it.
+     */
+    private void preemptNow(Core c) {
+        c.runningUntil = internalClock;
+        completeOrPreemptRunning(c);
+        c.preemptions++;
+    }
+
+    private void readyChanged(Core c) {
+        coresWithReady.set(c.id, c.ready.size() > 0);
+    }
+
     /**
      * Move processes from SUBMIT into the system:
      * - if resources available → READY
      * - else → HQ1 or HQ2 based on priority
      */
     private void drainSubmitToSystem() {
+        if (batchWindow > 0) {
+            // batch mode: just open the window; BATCH_CLOSE admits
+            if (!batchOpen && !SUBMIT.isEmpty()) {
+                batchOpen = true;
+                events.push(internalClock + batchWindow, EventQueue.BATCH_CLOSE, null);
+            }
+            return;
+        }
+
         while (!SUBMIT.isEmpty()) {
             Process p = SUBMIT.dequeue();
-            if (oks.allocate(p)) {
-                READY.enqueue(p);
+            if (!meetsDeadline(p)) {
+                refuse(p);
+            } else if (oks.allocate(p)) {
+                enqueueReady(p, 0);
             } else {
-                if (p.getPriority() == 1) {
-                    HQ1.enqueue(p);
-                } else {
-                    HQ2.enqueue(p);
-                }
+                hold(p);
+            }
+        }
+    }
+
+    /**
+     * Window closed: the first MAX_BATCH jobs of SUBMIT are packed against
+     * the free memory/devices as one batch, picked jobs are admitted in
+     * arrival order, the others are held. Anything past MAX_BATCH is
+     * admitted greedily, so one decision stays O(MAX_BATCH log MAX_BATCH).
+     */
+    private void admitBatch() {
+        int n = 0;
+        while (n < BatchPacker.MAX_BATCH && !SUBMIT.isEmpty()) {
+            Process p = SUBMIT.dequeue();
+            if (!meetsDeadline(p)) {
+                refuse(p);
+                continue;
+            }
+            if (n == batch.length) batch = Arrays.copyOf(batch, Math.max(16, n * 2));
+            batch[n++] = p;
+        }
+
+        packer.pack(batch, n, oks.getFreeMemory(), oks.getFreeDevices());
+        for (int i = 0; i < n; i++) {
+            Process p = batch[i];
+            batch[i] = null;
+            if (packer.taken(i) && oks.allocate(p)) {
+                enqueueReady(p, 0);
+            } else {
+                hold(p);
+            }
+        }
+
+        while (!SUBMIT.isEmpty()) {
+            Process p = SUBMIT.dequeue();
+            if (!meetsDeadline(p)) {
+                refuse(p);
+            } else if (oks.allocate(p)) {
+                enqueueReady(p, 0);
+            } else {
+                hold(p);
+            }
+        }
+    }
+
+    // Deadline admission test (see DeadlineAdmission)
+    private boolean meetsDeadline(Process p) {
+        if (deadlineAdmission == DeadlineAdmission.OFF || !p.hasDeadline()) return true;
+        return internalClock + deadlineWait() + p.getBurstTime() <= p.getDeadline();
+    }
+
+    // Estimated wait before a job admitted now would start
+    private long deadlineWait() {
+        boolean byDeadline = scheduler.deadlineOrdered();
+        long ahead = byDeadline ? outstandingDeadlineWork : outstandingWork;
+        for (Core c : cores) {
+            // part of the running slices already done
+            if (c.running != null && (!byDeadline || c.running.hasDeadline())) {
+                ahead -= internalClock - c.lastDispatchAt;
             }
         }
+        return (Math.max(0, ahead) + cores.length - 1) / cores.length;
+    }
+
+    // HOLD: a held job leaves once it passes the test, or once nothing is ahead of it
+    private boolean mayLeaveHold(Process p) {
+        if (deadlineAdmission != DeadlineAdmission.HOLD || !p.hasDeadline()) return true;
+        long wait = deadlineWait();
+        return wait == 0 || internalClock + wait + p.getBurstTime() <= p.getDeadline();
+    }
+
+    // Would miss its deadline: dropped (REJECT) or held until it can make it (HOLD)
+    private void refuse(Process p) {
+        if (deadlineAdmission == DeadlineAdmission.HOLD) {
+            hold(p);
+            return;
+        }
+        metrics.recordRejected();
+        if (log != null) log.record(internalClock, EventLog.DL_REJECT, -1, p.getPID(), p.getDeadline());
+    }
+
+    // Not admitted: HQ1 for priority 1, HQ2 otherwise
+    private void hold(Process p) {
+        p.enterHold(internalClock);
+        int hq = (p.getPriority() == 1) ? 1 : 2;
+        if (hq == 1) {
+            HQ1.enqueue(p);
+        } else {
+            HQ2.enqueue(p);
+        }
+        if (log != null) log.record(internalClock, EventLog.HOLD, -1, p.getPID(), hq);
     }
 
     private void tryAdmitFromHolds() {
+        if (admissionPolicy == AdmissionPolicy.BEST_FIT) {
+            tryAdmitBestFit();
+            return;
+        }
+
         boolean moved;
         do {
             moved = false;
 
             if (!HQ1.isEmpty()) {
                 Process h1 = HQ1.peek();
-                if (oks.allocate(h1)) {
+                if (mayLeaveHold(h1) && oks.allocate(h1)) {
                     HQ1.dequeue();
-                    READY.enqueue(h1);
+                    enqueueReady(h1, 1);
                     moved = true;
                 }
             }
 
             if (!moved && !HQ2.isEmpty()) {
                 Process h2 = HQ2.peek();
-                if (oks.allocate(h2)) {
+                if (mayLeaveHold(h2) && oks.allocate(h2)) {
                     HQ2.dequeue();
-                    READY.enqueue(h2);
+                    enqueueReady(h2, 2);
                     moved = true;
                 }
             }
@@ -195,20 +697,69 @@ public class PrManager {
         } while (moved);
     }
 
-    private void scheduleNext() {
-        running = scheduler.selectNextProcess(READY);
-        if (running != null) {
-            running.setState(2);  // running
+    /**
+     * BEST_FIT admission. Free resources only shrink while admitting, so
+     * HQ1 is drained of every job that fits before HQ2 is considered.
+     * Skipped entirely until a release has freed something.
+     */
+    private void tryAdmitBestFit() {
+        if (!resourcesFreed) return;
+        resourcesFreed = false;
+
+        for (int hq = 1; hq <= 2; hq++) {
+            Queue hold = (hq == 1) ? HQ1 : HQ2;
+            hold.restoreBestFit();
+            while (!hold.isEmpty()) {
+                // a fitting job allocate() refuses (e.g. no hole large enough)
+                // or that would still miss its deadline (HOLD) keeps its place
+                // and is skipped until the next pass
+                Process p = hold.dequeueBestFit(oks.getFreeMemory(), oks.getFreeDevices(),
+                        h -> mayLeaveHold(h) && oks.allocate(h));
+                if (p == null) break;
+                enqueueReady(p, hq);
+            }
         }
-        lastDispatchAt = internalClock;
     }
 
-    private void completeOrPreemptRunning() {
+    /**
+     * Lets the scheduler pick from core c's READY, computes the slice and
+     * posts the core's SLICE_END / COMPLETION event.
+     * Returns false if the scheduler gave nothing back.
+     */
+    private boolean scheduleNext(Core c) {
+        int before = c.ready.size();
+        Process running = scheduler.pickNext(c.ready, internalClock);
+        readyJobs -= before - c.ready.size();
+        readyChanged(c);
+        if (running == null) return false;
+
+        running.setState(2);  // running
+        running.dispatched(internalClock);
+        c.running = running;
+        c.lastDispatchAt = internalClock;
+        c.dispatches++;
+        idleCores.clear(c.id);
+
+        long rem = getRemainingBurst(running);
+        long slice = scheduler.timeSlice(running, c.ready, internalClock);
+        long run = Math.max(1, Math.min(rem, slice));
+        c.runningUntil = internalClock + run;
+        events.push(c.runningUntil,
+                run >= rem ? EventQueue.COMPLETION : EventQueue.SLICE_END, c);
+        if (log != null) log.record(internalClock, EventLog.DISPATCH, c.id, running.getPID(), run);
+        return true;
+    }
+
+    private void completeOrPreemptRunning(Core c) {
+        Process running = c.running;
         if (running == null) return;
 
-        long elapsed = runningUntil - lastDispatchAt;
+        long elapsed = c.runningUntil - c.lastDispatchAt;
+        c.busyTime += elapsed;
         long rem = getRemainingBurst(running) - elapsed;
         setRemainingBurst(running, Math.max(0, rem));
+        outstandingWork -= elapsed;
+        if (running.hasDeadline()) outstandingDeadlineWork -= elapsed;
 
         boolean finished = (getRemainingBurst(running) <= 0);
 
@@ -217,28 +768,299 @@ public class PrManager {
             long at  = running.getArrivalTime();
             long ct  = internalClock;
 
-            long originalBurst = totalBurstByPid.getOrDefault(pid, 0L);
+            long originalBurst = running.getOriginalBurst();
 
             long turnaround = ct - at;
             long waiting    = turnaround - originalBurst;
 
-            finishedJobs.add(new FinishedJob(pid, at, ct, turnaround, waiting));
+            if (keepFinishedRows) finishedJobs.add(pid, at, ct, turnaround, waiting);
+            finishedCount++;
+            metrics.record(turnaround, waiting, running.getFirstDispatchAt() - at,
+                    running.getHoldTime(), running.getSlices());
+            if (running.hasDeadline()) metrics.recordDeadline(ct - running.getDeadline());
 
             oks.release(running);
+            resourcesFreed = true;
             running.setState(4);
-            running = null;
+            c.completions++;
+            scheduler.onComplete(running, internalClock);
+            if (log != null) log.record(internalClock, EventLog.COMPLETE, c.id, pid, running.getMemoryReq());
 
         } else {
             running.setState(1); // ready
-            READY.enqueue(running);
-            running = null;
+            c.ready.add(running);
+            readyJobs++;
+            readyChanged(c);
+            scheduler.onPreempt(running, elapsed, internalClock);
+            if (log != null) log.record(internalClock, EventLog.PREEMPT, c.id, running.getPID(), elapsed);
+        }
+
+        c.running = null;
+        idleCores.set(c.id);
+    }
+
+    // ============================================================
+    //                      READ-ONLY VIEW
+    // ============================================================
+
+    // Odd generation = change in progress; both are no-ops if already in that state
+    private void beginChange() {
+        if ((generation & 1) == 0) {
+            generation++;
+            VarHandle.storeStoreFence(); // the odd generation is visible before any change
+        }
+    }
+
+    private void endChange() {
+        if ((generation & 1) != 0) generation++;
+    }
+
+    /**
+     * O(1) read-only view of the current generation: nothing is copied
+     * and the engine is never held up. Every queue and counter read
+     * through one View belongs to the same generation; reading after the
+     * engine has moved on throws ConcurrentModificationException.
+     */
+    public View view() {
+        return new View(generation);
+    }
+
+    /**
+     * All queues plus the kernel-services counters, as of one generation.
+     *
+     * On the engine's own thread (listeners, or between Simulation calls)
+     * a view is always consistent. Another thread reads optimistically:
+     * take a view, check isStable(), read, then check isValid(); if either
+     * fails (or a read throws ConcurrentModificationException), the engine
+     * was mid-change, so discard what was read and retry, or fall back to a
+     * status published at a safe point. The forEach*() walks re-check the
+     * generation when they end, and a walk that raced the engine (stale
+     * slots, a store exception) ends in ConcurrentModificationException.
+     * ViewStress exercises this from a second thread.
+     */
+    public final class View {
+        private final long gen;
+
+        private View(long gen) { this.gen = gen; }
+
+        public long getGeneration() { return gen; }
+
+        // taken while the engine was at rest
+        public boolean isStable() { return (gen & 1) == 0; }
+
+        // nothing has changed since the view was taken
+        public boolean isValid() {
+            VarHandle.acquireFence(); // earlier plain reads complete before the re-check
+            return generation == gen;
+        }
+
+        private void check() {
+            if (!isValid()) throw new ConcurrentModificationException("generation " + gen + " is gone");
+        }
+
+        public long getTime()          { check(); return internalClock; }
+        public int getCoreCount()      { return cores.length; }
+        public int getRunningCount()   { check(); return PrManager.this.getRunningCount(); }
+        public int getReadyCount()     { check(); return readyJobs; }
+        public int getSubmitCount()    { check(); return SUBMIT.size(); }
+        public int getHQ1Count()       { check(); return HQ1.size(); }
+        public int getHQ2Count()       { check(); return HQ2.size(); }
+        public long getFinishedCount() { check(); return finishedCount; }
+
+        // KerServices counters
+        public long getMemorySize()    { return oks.getMemorySize(); }
+        public long getMemInUse()      { check(); return oks.getMemInUse(); }
+        public int getNoDevs()         { return oks.getNoDevs(); }
+        public int getDevsInUse()      { check(); return oks.getDevsInUse(); }
+
+        // queue contents in order, without copying (READY: core 0 first)
+        public void forEachReady(Consumer<? super Process> action) {
+            for (Core c : cores) walk(c.ready, action);
+        }
+
+        public void forEachSubmit(Consumer<? super Process> action) { walk(SUBMIT, action); }
+        public void forEachHQ1(Consumer<? super Process> action)    { walk(HQ1, action); }
+        public void forEachHQ2(Consumer<? super Process> action)    { walk(HQ2, action); }
+
+        private void walk(QueueStore q, Consumer<? super Process> action) {
+            check();
+            try {
+                q.forEach(p -> {
+                    if (p != null) action.accept(p);
+                });
+            } catch (RuntimeException e) {
+                check(); // raced the engine -> ConcurrentModificationException
+                throw e;
+            }
+            check();
         }
     }
 
+    // ============================================================
+    //                      CHECKPOINT
+    // ============================================================
+
+    /**
+     * Writes the complete state: kernel services, clock, every queue in
+     * order, each core's running job and counters, pending events,
+     * finished-job rows and metrics, and the scheduler's own state.
+     * Listener and event log are not part of it (the owner re-attaches them).
+     */
+    public void writeCheckpoint(DataOutput out) throws IOException {
+        oks.writeTo(out);
+        out.writeInt(cores.length);
+        out.writeLong(internalClock);
+        out.writeInt(admissionPolicy.ordinal());
+        out.writeBoolean(resourcesFreed);
+        out.writeInt(placeCursor);
+        out.writeInt(stealCursor);
+        out.writeBoolean(keepFinishedRows);
+        out.writeLong(finishedCount);
+        out.writeLong(batchWindow);
+        out.writeBoolean(batchOpen);
+        packer.writeTo(out);
+        out.writeInt(deadlineAdmission.ordinal());
+        out.writeLong(outstandingWork);
+        out.writeLong(outstandingDeadlineWork);
+
+        // scheduler first: restoring READY may depend on its counters
+        ByteArrayOutputStream state = new ByteArrayOutputStream();
+        scheduler.saveState(new DataOutputStream(state));
+        out.writeUTF(scheduler.getClass().getName());
+        out.writeInt(state.size());
+        out.write(state.toByteArray());
+
+        writeJobs(out, SUBMIT.snapshot());
+        writeJobs(out, HQ1.snapshot());
+        writeJobs(out, HQ2.snapshot());
+
+        for (Core c : cores) {
+            writeJobs(out, c.ready.snapshot());
+            out.writeBoolean(c.running != null);
+            if (c.running != null) c.running.writeTo(out);
+            out.writeLong(c.runningUntil);
+            out.writeLong(c.lastDispatchAt);
+            out.writeLong(c.busyTime);
+            out.writeLong(c.dispatches);
+            out.writeLong(c.completions);
+            out.writeLong(c.steals);
+            out.writeLong(c.preemptions);
+        }
+
+        // pending events in posting order, so re-pushing keeps ties as they were
+        Integer[] idx = new Integer[events.size()];
+        for (int i = 0; i < idx.length; i++) idx[i] = i;
+        Arrays.sort(idx, Comparator.comparingLong(events::seqAt));
+        out.writeInt(idx.length);
+        for (int i : idx) {
+            int type = events.typeAt(i);
+            out.writeLong(events.timeAt(i));
+            out.writeByte(type);
+            if (type == EventQueue.SLICE_END || type == EventQueue.COMPLETION) {
+                out.writeInt(((Core) events.payloadAt(i)).id);
+            } else if (type == EventQueue.ARRIVAL) {
+                ((Process) events.payloadAt(i)).writeTo(out);
+            }
+        }
+
+        finishedJobs.writeTo(out);
+        metrics.writeTo(out);
+    }
+
+    /**
+     * Rebuilds a PrManager written by writeCheckpoint, running 'policy'.
+     * The policy's saved state is loaded only if it is of the same class,
+     * so a different scheduler can take over from the checkpoint.
+     */
+    public static PrManager readCheckpoint(DataInput in, SchedulingPolicy policy) throws IOException {
+        KerServices oks = KerServices.readFrom(in);
+        PrManager pr = new PrManager(0, oks, in.readInt());
+        pr.internalClock = in.readLong();
+        pr.setAdmissionPolicy(AdmissionPolicy.values()[in.readInt()]);
+        pr.resourcesFreed = in.readBoolean();
+        pr.placeCursor = in.readInt();
+        pr.stealCursor = in.readInt();
+        pr.keepFinishedRows = in.readBoolean();
+        pr.finishedCount = in.readLong();
+        pr.batchWindow = in.readLong();
+        pr.batchOpen = in.readBoolean();
+        pr.packer.readFrom(in);
+        pr.deadlineAdmission = DeadlineAdmission.values()[in.readInt()];
+        pr.outstandingWork = in.readLong();
+        pr.outstandingDeadlineWork = in.readLong();
+
+        String savedPolicy = in.readUTF();
+        byte[] state = new byte[in.readInt()];
+        in.readFully(state);
+        if (savedPolicy.equals(policy.getClass().getName())) {
+            policy.loadState(new DataInputStream(new ByteArrayInputStream(state)));
+        }
+        pr.setScheduler(policy);
+
+        for (Process p : readJobs(in)) pr.SUBMIT.enqueue(p);
+        for (Process p : readJobs(in)) pr.HQ1.enqueue(p);
+        for (Process p : readJobs(in)) pr.HQ2.enqueue(p);
+
+        for (Core c : pr.cores) {
+            for (Process p : readJobs(in)) c.ready.add(p);
+            c.running = in.readBoolean() ? Process.readFrom(in) : null;
+            c.runningUntil = in.readLong();
+            c.lastDispatchAt = in.readLong();
+            c.busyTime = in.readLong();
+            c.dispatches = in.readLong();
+            c.completions = in.readLong();
+            c.steals = in.readLong();
+            c.preemptions = in.readLong();
+
+            pr.readyJobs += c.ready.size();
+            pr.readyChanged(c);
+            pr.idleCores.set(c.id, c.running == null);
+        }
+
+        int n = in.readInt();
+        for (int i = 0; i < n; i++) {
+            long t = in.readLong();
+            int type = in.readByte();
+            Object payload = null;
+            if (type == EventQueue.SLICE_END || type == EventQueue.COMPLETION) {
+                payload = pr.cores[in.readInt()];
+            } else if (type == EventQueue.ARRIVAL) {
+                payload = Process.readFrom(in);
+            }
+            pr.events.push(t, type, payload);
+        }
+
+        pr.finishedJobs.readFrom(in);
+        pr.metrics.readFrom(in);
+        return pr;
+    }
+
+    public KerServices getKerServices() {
+        return oks;
+    }
+
+    private static void writeJobs(DataOutput out, List<Process> jobs) throws IOException {
+        out.writeInt(jobs.size());
+        for (Process p : jobs) p.writeTo(out);
+    }
+
+    private static List<Process> readJobs(DataInput in) throws IOException {
+        int n = in.readInt();
+        List<Process> jobs = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) jobs.add(Process.readFrom(in));
+        return jobs;
+    }
+
     // ============================================================
     //                      HELPERS
     // ============================================================
 
+    private static Queue rebuildHold(Queue old, String type, QueueStore store) {
+        Queue q = new Queue(type, store);
+        while (!old.isEmpty()) q.enqueue(old.dequeue());
+        return q;
+    }
+
     private long getRemainingBurst(Process p) {
         return p.getBurstTime();
     }
@@ -249,26 +1071,55 @@ public class PrManager {
 
     public List<long[]> getFinishedJobsSnapshot(long upToTime) {
         List<long[]> out = new ArrayList<>();
-        for (FinishedJob fj : finishedJobs) {
-            if (fj.completionTime <= upToTime) {
+        for (int i = 0; i < finishedJobs.size(); i++) {
+            if (finishedJobs.completion(i) <= upToTime) {
                 out.add(new long[]{
-                        fj.pid,
-                        fj.arrivalTime,
-                        fj.completionTime,
-                        fj.turnaroundTime,
-                        fj.waitingTime
+                        finishedJobs.pid(i),
+                        finishedJobs.arrival(i),
+                        finishedJobs.completion(i),
+                        finishedJobs.turnaround(i),
+                        finishedJobs.waiting(i)
                 });
             }
         }
         return out;
     }
 
+    // Read-only use: rows are appended as jobs complete
+    public FinishedTable getFinishedTable() {
+        return finishedJobs;
+    }
+
     public int getTotalFinishedCount() {
-        return finishedJobs.size();
+        return (int) finishedCount;
+    }
+
+    public JobMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * false: finished jobs only go into the histograms (no per-job rows),
+     * so memory stays constant however long the run is.
+     */
+    public void setKeepFinishedRows(boolean keep) {
+        this.keepFinishedRows = keep;
+    }
+
+    // CPU ticks over all cores, including slices still running
+    public long getTotalBusyTime() {
+        long busy = 0;
+        for (int i = 0; i < cores.length; i++) busy += getCoreBusyTime(i);
+        return busy;
     }
 
+    // All READY queues, core 0 first
     public List<Process> getReadySnapshot() {
-        return READY.snapshot();
+        if (cores.length == 1) return cores[0].ready.snapshot();
+
+        List<Process> out = new LinkedList<>();
+        for (Core c : cores) out.addAll(c.ready.snapshot());
+        return out;
     }
 
     public List<Process> getHQ1Snapshot() {
@@ -282,4 +1133,14 @@ public class PrManager {
     public List<Process> getSubmitSnapshot() {
         return SUBMIT.snapshot();
     }
+
+    // Queue lengths without copying (status lines)
+    public int getReadyCount()  { return readyJobs; }
+    public int getSubmitCount() { return SUBMIT.size(); }
+    public int getHQ1Count()    { return HQ1.size(); }
+    public int getHQ2Count()    { return HQ2.size(); }
+
+    public int getRunningCount() {
+        return cores.length - idleCores.cardinality();
+    }
 }
@@ -0,0 +1,239 @@
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * PriorityScheduler
+ * -----------------
+ * Preemptive priority scheduling with aging. Lower P value = higher
+ * priority (P=1 jobs are the HQ1 class).
+ *
+ * Aging: a job's effective key is
+ *     enqueueDecision + priority * agingStep
+ * where enqueueDecision counts scheduling decisions. Waiting agingStep
+ * decisions is worth one priority level, so low-priority jobs cannot
+ * starve. Aged jobs are re-evaluated every 'quantum' ticks.
+ *
+ * Preemption: a job admitted to READY preempts the running job at once
+ * when its key beats the key the running job would get if re-queued now,
+ * i.e. (both keys share the current decision count) when it has a
+ * strictly higher priority. So arrivals never wait for a slice end, and
+ * the quantum only paces aging, not how fast priority takes effect.
+ *
+ * Ready set: one FIFO bucket per priority level. Keys within a bucket are
+ * increasing, so the best job is the smallest head: add O(1),
+ * select O(levels). A checkpoint carries the keys of waiting jobs, so
+ * restored jobs keep the age they had rather than starting over.
+ */
+public class PriorityScheduler extends Scheduler {
+
+    public static final int LEVELS = 16; // priorities are clamped to 0..15
+
+    private final int quantum;
+    private final int agingStep;
+    private long decisions = 0;
+    private final List<AgingStore> stores = new ArrayList<>(); // this section's ready sets
+    private final PidMap restored = new PidMap();             // pid -> key, until re-queued
+
+    public PriorityScheduler(int quantum, int agingStep) {
+        this.quantum = Math.max(1, quantum);
+        this.agingStep = Math.max(0, agingStep);
+    }
+
+    @Override
+    public Process selectNextProcess(Queue readyQ) {
+        decisions++;
+        return readyQ.dequeue(); // store hands out the smallest key
+    }
+
+    @Override
+    public int computeTimeSlice(Process selected, Queue readyQ) {
+        return quantum;
+    }
+
+    @Override
+    public boolean shouldPreempt(Process running, long remaining, Process arrived) {
+        return agingStep > 0 && level(arrived) < level(running);
+    }
+
+    private static int level(Process p) {
+        return Math.max(0, Math.min(LEVELS - 1, p.getPriority()));
+    }
+
+    // a lone job is re-picked every quantum; only the decision count moves
+    @Override
+    public long repeatSlice(Process p) {
+        return quantum;
+    }
+
+    @Override
+    public void onSlicesSkipped(Process p, long slices, long now) {
+        decisions += slices;
+    }
+
+    @Override
+    public void onSection(long start) {
+        stores.clear();
+        restored.clear();
+    }
+
+    @Override
+    public void saveState(DataOutput out) throws IOException {
+        out.writeLong(decisions);
+        PidMap keys = new PidMap();
+        for (AgingStore st : stores) {
+            for (Bucket b : st.buckets) {
+                for (int i = 0; i < b.count; i++) {
+                    int at = (b.head + i) % b.p.length;
+                    keys.put(b.p[at].getPID(), b.key[at]);
+                }
+            }
+        }
+        keys.writeTo(out);
+    }
+
+    // PrManager re-adds the waiting jobs right after this
+    @Override
+    public void loadState(DataInput in) throws IOException {
+        decisions = in.readLong();
+        stores.clear();
+        restored.readFrom(in);
+    }
+
+    @Override
+    public QueueStore createReadyStore() {
+        AgingStore st = new AgingStore();
+        stores.add(st);
+        return st;
+    }
+
+    // ===== ready store =====
+
+    // FIFO ring of (process, key)
+    private static final class Bucket {
+        Process[] p = new Process[8];
+        long[] key = new long[8];
+        int head = 0, count = 0;
+
+        void add(Process x, long k) {
+            if (count == p.length) grow();
+            int i = (head + count) % p.length;
+            p[i] = x;
+            key[i] = k;
+            count++;
+        }
+
+        Process poll() {
+            Process x = p[head];
+            p[head] = null;
+            head = (head + 1) % p.length;
+            count--;
+            return x;
+        }
+
+        long headKey() { return key[head]; }
+
+        private void grow() {
+            Process[] np = new Process[p.length * 2];
+            long[] nk = new long[p.length * 2];
+            for (int i = 0; i < count; i++) {
+                np[i] = p[(head + i) % p.length];
+                nk[i] = key[(head + i) % p.length];
+            }
+            p = np;
+            key = nk;
+            head = 0;
+        }
+    }
+
+    private final class AgingStore implements QueueStore {
+        private final Bucket[] buckets = new Bucket[LEVELS];
+        private final BitSet nonEmpty = new BitSet(LEVELS);
+        private int size = 0;
+
+        AgingStore() {
+            for (int i = 0; i < LEVELS; i++) buckets[i] = new Bucket();
+        }
+
+        @Override
+        public void add(Process p) {
+            int lvl = level(p);
+            long key = decisions + (long) lvl * agingStep;
+            if (restored.size() > 0) {
+                key = restored.get(p.getPID(), key);
+                restored.remove(p.getPID());
+            }
+            buckets[lvl].add(p, key);
+            nonEmpty.set(lvl);
+            size++;
+        }
+
+        @Override
+        public Process poll() {
+            int lvl = best();
+            if (lvl < 0) return null;
+            Process p = buckets[lvl].poll();
+            if (buckets[lvl].count == 0) nonEmpty.clear(lvl);
+            size--;
+            return p;
+        }
+
+        @Override
+        public Process peek() {
+            int lvl = best();
+            return lvl < 0 ? null : buckets[lvl].p[buckets[lvl].head];
+        }
+
+        @Override
+        public int size() { return size; }
+
+        // in selection order
+        @Override
+        public LinkedList<Process> snapshot() {
+            LinkedList<Process> out = new LinkedList<>();
+            forEach(out::add);
+            return out;
+        }
+
+        // in selection order, without copying: a merge of the buckets, each
+        // already in key order, taking the smallest key (ties: higher priority)
+        @Override
+        public void forEach(Consumer<? super Process> action) {
+            int[] seen = new int[LEVELS];   // jobs visited per bucket
+            for (int left = size; left > 0; left--) {
+                int bestLvl = -1;
+                long bestKey = Long.MAX_VALUE;
+                for (int lvl = nonEmpty.nextSetBit(0); lvl >= 0; lvl = nonEmpty.nextSetBit(lvl + 1)) {
+                    Bucket b = buckets[lvl];
+                    if (seen[lvl] == b.count) continue;
+                    long k = b.key[(b.head + seen[lvl]) % b.p.length];
+                    if (k < bestKey) {
+                        bestKey = k;
+                        bestLvl = lvl;
+                    }
+                }
+                Bucket b = buckets[bestLvl];
+                action.accept(b.p[(b.head + seen[bestLvl]++) % b.p.length]);
+            }
+        }
+
+        // level whose head has the smallest key (ties: higher priority)
+        private int best() {
+            int bestLvl = -1;
+            long bestKey = Long.MAX_VALUE;
+            for (int lvl = nonEmpty.nextSetBit(0); lvl >= 0; lvl = nonEmpty.nextSetBit(lvl + 1)) {
+                long k = buckets[lvl].headKey();
+                if (k < bestKey) {
+                    bestKey = k;
+                    bestLvl = lvl;
+                }
+            }
+            return bestLvl;
+        }
+    }
+}
@@ -1,18 +1,44 @@
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Process
+ * -------
+ * One live job (PCB). Live jobs are objects: queues, schedulers and the
+ * SchedulingPolicy SPI all pass Process references. A finished job leaves
+ * no object behind; its row goes into FinishedTable. Policy-private state
+ * (MLFQ level, fair-share vruntime) lives in the owning scheduler, not here.
+ */
 public class Process {
     // «PCB» fields (from UML)
     private long PID;
     private long arrivalTime;
-    private long burstTime;
+    private long burstTime;      // remaining burst (decremented as the job runs)
+    private final long originalBurst;
     private int  priority;
     private long memoryReq;
     private int  devReq;
     private int  state; // (0=new,1=ready,2=running,3=blocked,4=finished)
+    private long memHandle = -1; // block handle when a MemoryAllocator is in use
+    private long deadline = 0;   // absolute completion deadline, 0 = none (EDF)
+    private int  group = 0;      // owner group, 0 = default (fair share)
+
+    // per-job metrics (see JobMetrics)
+    private long firstDispatchAt = -1; // -1 = never ran
+    private long holdSince = -1;       // -1 = not in a hold queue
+    private long holdTime = 0;
+    private int  slices = 0;
+
+    // group ids are 0..MAX_GROUP (16 bits in a BinaryTrace record)
+    public static final int MAX_GROUP = 0xFFFF;
 
     public Process(long PID, long arrivalTime, long burstTime,
                    int priority, long memoryReq, int devReq, int state) {
         this.PID = PID;
         this.arrivalTime = arrivalTime;
         this.burstTime = burstTime;
+        this.originalBurst = burstTime;
         this.priority = priority;
         this.memoryReq = memoryReq;
         this.devReq = devReq;
@@ -29,6 +55,8 @@ public class Process {
     public long getBurstTime() { return burstTime; }
     public void setBurstTime(long burstTime) { this.burstTime = burstTime; }
 
+    public long getOriginalBurst() { return originalBurst; }
+
     public int getPriority() { return priority; }
     public void setPriority(int priority) { this.priority = priority; }
 
@@ -41,6 +69,80 @@ public class Process {
     public int getState() { return state; }
     public void setState(int state) { this.state = state; }
 
+    public long getMemHandle() { return memHandle; }
+    public void setMemHandle(long memHandle) { this.memHandle = memHandle; }
+
+    public long getDeadline() { return deadline; }
+    public void setDeadline(long deadline) { this.deadline = Math.max(0, deadline); }
+    public boolean hasDeadline() { return deadline > 0; }
+
+    public int getGroup() { return group; }
+    public void setGroup(int group) { this.group = Math.max(0, Math.min(MAX_GROUP, group)); }
+
+    public long getFirstDispatchAt() { return firstDispatchAt; }
+    public int getSlices() { return slices; }
+    public long getHoldTime() { return holdTime; }
+
+    // +dispatched()
+    public void dispatched(long now) {
+        if (firstDispatchAt < 0) firstDispatchAt = now;
+        slices++;
+    }
+
+    // n more dispatches at slice ends PrManager skipped in one step
+    public void redispatched(long n) { slices += (int) n; }
+
+    public void enterHold(long now) { holdSince = now; }
+
+    public void leaveHold(long now) {
+        if (holdSince >= 0) {
+            holdTime += now - holdSince;
+            holdSince = -1;
+        }
+    }
+
+    // ===== checkpoint (see Checkpoint) =====
+
+    public void writeTo(DataOutput out) throws IOException {
+        out.writeLong(PID);
+        out.writeLong(arrivalTime);
+        out.writeLong(burstTime);
+        out.writeLong(originalBurst);
+        out.writeInt(priority);
+        out.writeLong(memoryReq);
+        out.writeInt(devReq);
+        out.writeInt(state);
+        out.writeLong(memHandle);
+        out.writeLong(deadline);
+        out.writeInt(group);
+        out.writeLong(firstDispatchAt);
+        out.writeLong(holdSince);
+        out.writeLong(holdTime);
+        out.writeInt(slices);
+    }
+
+    public static Process readFrom(DataInput in) throws IOException {
+        long pid = in.readLong();
+        long at = in.readLong();
+        long bt = in.readLong();
+        long original = in.readLong();
+        int pri = in.readInt();
+        long mem = in.readLong();
+        int dev = in.readInt();
+        int st = in.readInt();
+
+        Process p = new Process(pid, at, original, pri, mem, dev, st);
+        p.burstTime = bt;
+        p.memHandle = in.readLong();
+        p.deadline = in.readLong();
+        p.group = in.readInt();
+        p.firstDispatchAt = in.readLong();
+        p.holdSince = in.readLong();
+        p.holdTime = in.readLong();
+        p.slices = in.readInt();
+        return p;
+    }
+
     @Override
     public String toString() {
         return "P{PID=" + PID +
@@ -1,17 +1,36 @@
 import java.util.LinkedList;
-import java.util.ListIterator;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
 
-public class Queue {
+public class Queue implements QueueStore {
     // schType matches the UML and project wording:
     //   "READY"  -> FIFO ready queue
     //   "HQ1"    -> Hold Queue 1 (sorted ascending by memoryReq; break ties FIFO by arrivalTime)
     //   "HQ2"    -> FIFO
     //   "SUBMIT" -> FIFO
     private final String schType;
-    private final LinkedList<Process> q = new LinkedList<>();
+    private final QueueStore q;
+
+    // Running sum of getBurstTime() over queued processes (used by Dynamic RR).
+    // Bursts only change while a job is running, i.e. outside any queue,
+    // so updating on enqueue/dequeue keeps it exact.
+    private long burstSum = 0;
 
     public Queue(String schType) {
+        this(schType, null);
+    }
+
+    // Pluggable backend; null picks the default store for the schType
+    public Queue(String schType, QueueStore store) {
         this.schType = schType == null ? "FIFO" : schType.toUpperCase();
+        this.q = store != null ? store : defaultStore(this.schType);
+    }
+
+    private static QueueStore defaultStore(String schType) {
+        if ("HQ1".equals(schType)) {
+            return new MemOrderedQueueStore(); // O(log n) sorted insert
+        }
+        return new RingQueueStore();           // READY, HQ2, SUBMIT -> O(1) FIFO
     }
 
     public String getSchType() { return schType; }
@@ -19,40 +38,53 @@ public class Queue {
     // +enqueue()
     public void enqueue(Process p) {
         if (p == null) return;
-
-        if ("HQ1".equals(schType)) {
-            // Insert in ascending order of requested memory; ties -> arrivalTime FIFO
-            ListIterator<Process> it = q.listIterator();
-            while (it.hasNext()) {
-                Process cur = it.next();
-                if (p.getMemoryReq() < cur.getMemoryReq() ||
-                        (p.getMemoryReq() == cur.getMemoryReq()
-                                && p.getArrivalTime() < cur.getArrivalTime())) {
-                    it.previous();
-                    it.add(p);
-                    return;
-                }
-            }
-            q.addLast(p);
-        } else {
-            // READY, HQ2, SUBMIT -> FIFO
-            q.addLast(p);
-        }
+        q.add(p);
+        burstSum += p.getBurstTime();
     }
 
     // dequeue()
     public Process dequeue() {
-        return q.isEmpty() ? null : q.removeFirst();
+        return removed(q.poll());
+    }
+
+    // Best-fit removal of a job 'admit' accepts; only hold queues built on a
+    // BestFitQueueStore support it (see BestFitQueueStore.pollBestFit)
+    public Process dequeueBestFit(long freeMem, int freeDevs, Predicate<Process> admit) {
+        if (!(q instanceof BestFitQueueStore)) return null;
+        return removed(((BestFitQueueStore) q).pollBestFit(freeMem, freeDevs, admit));
     }
 
+    // Starts a best-fit pass: jobs refused by the previous one are candidates again
+    public void restoreBestFit() {
+        if (q instanceof BestFitQueueStore) ((BestFitQueueStore) q).restoreParked();
+    }
+
+    private Process removed(Process p) {
+        if (p != null) burstSum -= p.getBurstTime();
+        return p;
+    }
+
+    // QueueStore view (lets a Queue serve as a scheduler's READY set)
+    @Override
+    public void add(Process p) { enqueue(p); }
+
+    @Override
+    public Process poll() { return dequeue(); }
+
     // helpers
-    public Process peek() { return q.peekFirst(); }
-    public boolean isEmpty() { return q.isEmpty(); }
+    @Override
+    public Process peek() { return q.peek(); }
+    public boolean isEmpty() { return q.size() == 0; }
+    @Override
     public int size() { return q.size(); }
-    public LinkedList<Process> snapshot() { return new LinkedList<>(q); }
+    public long getBurstSum() { return burstSum; }
+    @Override
+    public LinkedList<Process> snapshot() { return q.snapshot(); }
+    @Override
+    public void forEach(Consumer<? super Process> action) { q.forEach(action); }
 
     @Override
     public String toString() {
-        return schType + q.toString();
+        return schType + q.snapshot().toString();
     }
 }
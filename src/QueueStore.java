@@ -0,0 +1,33 @@
+import java.util.LinkedList;
+import java.util.function.Consumer;
+
+/**
+ * QueueStore
+ * ----------
+ * Storage backend behind a Queue. The Queue decides the ordering rule
+ * (by schType); the store only has to keep it efficiently.
+ *
+ *   RingQueueStore       -> FIFO (READY, HQ2, SUBMIT)
+ *   MemOrderedQueueStore -> HQ1 order (memoryReq asc, then arrivalTime, then FIFO)
+ */
+public interface QueueStore {
+
+    void add(Process p);
+
+    // remove and return the head, or null when empty
+    Process poll();
+
+    // head without removing, or null when empty
+    Process peek();
+
+    int size();
+
+    // copy of the contents in queue order (head first)
+    LinkedList<Process> snapshot();
+
+    // visits the contents in queue order without copying
+    // (default goes through snapshot(); stores override it)
+    default void forEach(Consumer<? super Process> action) {
+        snapshot().forEach(action);
+    }
+}
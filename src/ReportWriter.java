@@ -0,0 +1,137 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * ReportWriter
+ * ------------
+ * Buffered, asynchronous text output for the simulation report.
+ *
+ * The simulation thread appends into a reusable StringBuilder (buf()).
+ * Once a batch reaches BATCH_CHARS it is handed to a background thread
+ * that writes it out; at most QUEUE_DEPTH batches can be pending, after
+ * which the simulation thread waits, so memory stays bounded.
+ * Buffers are recycled, so steady-state output allocates nothing.
+ *
+ * Also holds the small number formatters used instead of String.format.
+ */
+public class ReportWriter implements Closeable {
+
+    public static final String NL = System.lineSeparator();
+
+    private static final int BATCH_CHARS = 64 * 1024;
+    private static final int QUEUE_DEPTH = 4;
+
+    // sentinel telling the worker to stop
+    private static final StringBuilder EOF = new StringBuilder();
+
+    private final Writer sink;
+    private final BlockingQueue<StringBuilder> full = new ArrayBlockingQueue<>(QUEUE_DEPTH);
+    private final BlockingQueue<StringBuilder> free = new ArrayBlockingQueue<>(QUEUE_DEPTH + 2);
+    private final Thread worker;
+
+    private StringBuilder cur = new StringBuilder(BATCH_CHARS + 1024);
+    private volatile IOException failure = null;
+    private boolean closed = false;
+
+    public ReportWriter(Writer sink) {
+        this.sink = sink;
+        this.worker = new Thread(this::drain, "report-writer");
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    // Buffer to append the next piece of output to
+    public StringBuilder buf() {
+        return cur;
+    }
+
+    public void println(String s) {
+        cur.append(s).append(NL);
+        endRecord();
+    }
+
+    public void println() {
+        cur.append(NL);
+        endRecord();
+    }
+
+    /**
+     * Marks the end of a logical record (a status block, a header, ...).
+     * Hands the batch to the writer thread once it is big enough.
+     */
+    public void endRecord() {
+        if (cur.length() >= BATCH_CHARS) handOff();
+    }
+
+    // Writes everything still buffered and stops the writer thread.
+    @Override
+    public void close() throws IOException {
+        if (closed) return;
+        closed = true;
+
+        if (cur.length() > 0) handOff();
+        put(EOF);
+        try {
+            worker.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        sink.close();
+
+        if (failure != null) throw failure;
+    }
+
+    private void handOff() {
+        put(cur);
+        StringBuilder next = free.poll();
+        cur = (next != null) ? next : new StringBuilder(BATCH_CHARS + 1024);
+    }
+
+    private void put(StringBuilder b) {
+        try {
+            full.put(b);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void drain() {
+        try {
+            while (true) {
+                StringBuilder b = full.take();
+                if (b == EOF) break;
+
+                if (failure == null) {
+                    try {
+                        sink.append(b);
+                    } catch (IOException e) {
+                        failure = e;
+                    }
+                }
+                b.setLength(0);
+                free.offer(b);
+            }
+            sink.flush();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            failure = e;
+        }
+    }
+
+    // ===== formatting helpers (String.format replacements) =====
+
+    // Same text as String.format("%.2f", (double) v) for whole numbers
+    public static StringBuilder fixed2(StringBuilder sb, long v) {
+        return sb.append(v).append(".00");
+    }
+
+    // Pads with spaces from 'start' up to 'width' chars, like "%-<width>s"
+    public static StringBuilder padTo(StringBuilder sb, int start, int width) {
+        for (int n = sb.length() - start; n < width; n++) sb.append(' ');
+        return sb;
+    }
+}
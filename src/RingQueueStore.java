@@ -0,0 +1,78 @@
+import java.util.LinkedList;
+import java.util.function.Consumer;
+
+/**
+ * RingQueueStore
+ * --------------
+ * Array-backed circular buffer for the FIFO queues.
+ * add/poll/peek are O(1) (amortized for add, the array doubles when full).
+ */
+public class RingQueueStore implements QueueStore {
+
+    private Process[] buf;
+    private int head = 0;   // index of the first element
+    private int count = 0;  // number of stored elements
+
+    public RingQueueStore() {
+        this(16);
+    }
+
+    public RingQueueStore(int initialCapacity) {
+        this.buf = new Process[Math.max(4, initialCapacity)];
+    }
+
+    @Override
+    public void add(Process p) {
+        if (count == buf.length) grow();
+        buf[(head + count) % buf.length] = p;
+        count++;
+    }
+
+    @Override
+    public Process poll() {
+        if (count == 0) return null;
+        Process p = buf[head];
+        buf[head] = null; // let GC reclaim
+        head = (head + 1) % buf.length;
+        count--;
+        return p;
+    }
+
+    @Override
+    public Process peek() {
+        return count == 0 ? null : buf[head];
+    }
+
+    @Override
+    public int size() { return count; }
+
+    @Override
+    public LinkedList<Process> snapshot() {
+        LinkedList<Process> out = new LinkedList<>();
+        for (int i = 0; i < count; i++) {
+            out.add(buf[(head + i) % buf.length]);
+        }
+        return out;
+    }
+
+    // buf, head and count are read once: a walk from another thread that
+    // races add/poll/grow stays in bounds, it may only see stale or cleared slots
+    @Override
+    public void forEach(Consumer<? super Process> action) {
+        Process[] b = buf;
+        int h = head, n = Math.min(count, b.length);
+        for (int i = 0; i < n; i++) {
+            Process p = b[(h + i) % b.length];
+            if (p != null) action.accept(p);
+        }
+    }
+
+    private void grow() {
+        Process[] next = new Process[buf.length * 2];
+        for (int i = 0; i < count; i++) {
+            next[i] = buf[(head + i) % buf.length];
+        }
+        buf = next;
+        head = 0;
+    }
+}
@@ -0,0 +1,101 @@
+import java.util.LinkedList;
+import java.util.TreeSet;
+import java.util.function.Consumer;
+
+/**
+ * SJFScheduler
+ * ------------
+ * Shortest job first on the remaining burst.
+ *
+ *   SJF  (preemptive = false): the chosen job runs to completion.
+ *   SRTF (preemptive = true) : same, but a job joining READY with a shorter
+ *                              burst than what the running job has left
+ *                              preempts it (shortest remaining time first).
+ *
+ * Implements SchedulingPolicy directly: the ready set is a tree ordered
+ * by (remaining burst, FIFO), so a decision is O(log n) with no copying.
+ * A job's burst never changes while it waits, so its key stays valid.
+ */
+public class SJFScheduler implements SchedulingPolicy {
+
+    private final boolean preemptive;
+
+    public SJFScheduler(boolean preemptive) {
+        this.preemptive = preemptive;
+    }
+
+    @Override
+    public QueueStore newReadySet() {
+        return new BurstOrderedStore();
+    }
+
+    @Override
+    public Process pickNext(QueueStore ready, long now) {
+        return ready.poll(); // shortest remaining burst
+    }
+
+    // runs to completion unless an arrival preempts it
+    @Override
+    public long timeSlice(Process selected, QueueStore ready, long now) {
+        return Math.max(1, selected.getBurstTime());
+    }
+
+    @Override
+    public boolean shouldPreempt(Process running, long remaining, Process arrived) {
+        return preemptive && arrived.getBurstTime() < remaining;
+    }
+
+    // ===== ready store =====
+
+    private static final class BurstOrderedStore implements QueueStore {
+
+        private static final class Entry {
+            final Process p;
+            final long burst;
+            final long seq;
+
+            Entry(Process p, long seq) {
+                this.p = p;
+                this.burst = p.getBurstTime();
+                this.seq = seq;
+            }
+        }
+
+        private final TreeSet<Entry> tree = new TreeSet<>((a, b) -> {
+            if (a.burst != b.burst) return Long.compare(a.burst, b.burst);
+            return Long.compare(a.seq, b.seq);
+        });
+        private long nextSeq = 0;
+
+        @Override
+        public void add(Process p) {
+            tree.add(new Entry(p, nextSeq++));
+        }
+
+        @Override
+        public Process poll() {
+            Entry e = tree.pollFirst();
+            return e == null ? null : e.p;
+        }
+
+        @Override
+        public Process peek() {
+            return tree.isEmpty() ? null : tree.first().p;
+        }
+
+        @Override
+        public int size() { return tree.size(); }
+
+        @Override
+        public LinkedList<Process> snapshot() {
+            LinkedList<Process> out = new LinkedList<>();
+            for (Entry e : tree) out.add(e.p);
+            return out;
+        }
+
+        @Override
+        public void forEach(Consumer<? super Process> action) {
+            for (Entry e : tree) action.accept(e.p);
+        }
+    }
+}
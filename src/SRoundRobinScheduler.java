@@ -14,4 +14,10 @@ public class SRoundRobinScheduler extends Scheduler {
     public int computeTimeSlice(Process selected, Queue readyQ) {
         return quantum; // fixed
     }
+
+    // stateless, so a lone job's slices can be coalesced
+    @Override
+    public long repeatSlice(Process p) {
+        return quantum;
+    }
 }
@@ -1,4 +1,11 @@
-public abstract class Scheduler {
+/**
+ * Scheduler
+ * ---------
+ * Adapter from SchedulingPolicy to the original Queue-based contract:
+ * the READY set is a Queue (so Dynamic RR keeps its O(1) burst sum) and
+ * subclasses only implement selectNextProcess / computeTimeSlice.
+ */
+public abstract class Scheduler implements SchedulingPolicy {
 
     // Pick the next process from READY (usually FIFO)
     public abstract Process selectNextProcess(Queue readyQ);
@@ -6,4 +13,26 @@ public abstract class Scheduler {
     // Decide the time slice (in ms or ticks) for the selected process.
     // READY is provided so Dynamic RR can compute SR/AR including everything currently in READY.
     public abstract int computeTimeSlice(Process selected, Queue readyQ);
+
+    // Storage for READY queues; schedulers that need an ordered ready set
+    // return their own store so selection never scans READY. null = FIFO.
+    public QueueStore createReadyStore() { return null; }
+
+    // ===== SchedulingPolicy =====
+
+    @Override
+    public final QueueStore newReadySet() {
+        return new Queue("READY", createReadyStore());
+    }
+
+    // PrManager only hands back sets made by newReadySet(), i.e. Queues
+    @Override
+    public final Process pickNext(QueueStore ready, long now) {
+        return selectNextProcess((Queue) ready);
+    }
+
+    @Override
+    public final long timeSlice(Process selected, QueueStore ready, long now) {
+        return computeTimeSlice(selected, (Queue) ready);
+    }
 }
@@ -0,0 +1,380 @@
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.LongSupplier;
+
+/**
+ * SchedulerBenchmark
+ * ------------------
+ * Benchmark cases for schedulers, queues and the dispatch loop, plus a
+ * self-contained harness that runs them without a build: each case is
+ * warmed up, then measured over several rounds; the best round is kept.
+ * The JMH module (bench/, see bench/pom.xml) runs the same cases through
+ * newCase() as @Benchmark methods, with forks and proper warmup.
+ *
+ *   sim/<scheduler>/<workload>/<jobs>  end-to-end simulation through PrManager; scheduler is
+ *                                      FCFS, SRR, DRR, PRIO, MLFQ, SJF, SRTF, EDF or FAIR
+ *                                      (as SimulationController builds them for --sched=)
+ *   sim/DRR+log/<workload>/<jobs>      same as sim/DRR with an EventLog recording every decision
+ *   queue/hq1/<n>                      Queue.enqueue + dequeue on HQ1
+ *   drr/slice/<n>                      DRoundRobinScheduler.computeTimeSlice with n READY jobs
+ *   admit/pack/<n>                     BatchPacker.pack over n jobs, MAX_BATCH at a time
+ *
+ * Reported per case: ops/s, allocated bytes per op, and (sim cases) simulated jobs/s.
+ * For sim cases one op = one simulated job. Fixtures (workloads, the jobs
+ * queue/hq1 and drr/slice cycle through) are built by newCase(), outside
+ * the measured rounds, so bytes/op is what the operation itself allocates.
+ *
+ * Usage:
+ *   java SchedulerBenchmark [--sizes=1000,100000,1000000] [--out=file]
+ *                           [--baseline=bench/baseline.txt] [--tolerance=0.15]
+ * With --baseline every case is compared to the checked-in numbers and the
+ * exit code is 1 if any case lost more than the tolerance in ops/s, or if
+ * the run and the baseline do not have the same cases.
+ */
+public class SchedulerBenchmark {
+
+    private static final int WARMUP_ROUNDS  = 2;
+    private static final int MEASURE_ROUNDS = 3;
+    // small cases repeat within a round up to this many ops, so they are
+    // compiled by the time they are measured and a round is not a few µs
+    private static final int MIN_ROUND_OPS  = 100_000;
+
+    private static final long MEMORY = 1000;
+    private static final int  DEVS   = 8;
+
+    public static void main(String[] args) throws IOException {
+        int[] sizes = {1_000, 100_000, 1_000_000};
+        String outFile = null, baseline = null;
+        double tolerance = 0.15;
+
+        for (String a : args) {
+            if (a.startsWith("--sizes=")) {
+                String[] p = a.substring(8).split(",");
+                sizes = new int[p.length];
+                for (int i = 0; i < p.length; i++) sizes[i] = Integer.parseInt(p[i].trim());
+            } else if (a.startsWith("--out=")) {
+                outFile = a.substring(6);
+            } else if (a.startsWith("--baseline=")) {
+                baseline = a.substring(11);
+            } else if (a.startsWith("--tolerance=")) {
+                tolerance = Double.parseDouble(a.substring(12));
+            }
+        }
+
+        StringBuilder report = new StringBuilder();
+        report.append(String.format(Locale.ROOT, "%-36s %14s %14s %14s%n",
+                "# case", "ops/s", "bytes/op", "jobs/s"));
+
+        for (int n : sizes) {
+            for (String name : caseNames(n)) {
+                line(report, name, measure(n, newCase(name)), name.startsWith("sim/"));
+            }
+        }
+
+        System.out.print(report);
+        if (outFile != null) {
+            try (PrintWriter w = new PrintWriter(outFile)) {
+                w.print(report);
+            }
+        }
+
+        if (baseline != null && !compare(report.toString(), Paths.get(baseline), tolerance)) {
+            System.exit(1);
+        }
+    }
+
+    // ===== cases =====
+
+    private static final String[] WORKLOADS = {"uniform", "heavytail", "memstarved", "devstarved", "longlight"};
+    private static final String[] SCHEDULERS = {
+            "FCFS", "SRR", "DRR", "DRR+log", "PRIO", "MLFQ", "SJF", "SRTF", "EDF", "FAIR"
+    };
+
+    // every case at size n, in report order
+    private static List<String> caseNames(int n) {
+        List<String> names = new ArrayList<>();
+        for (String w : WORKLOADS) {
+            for (String s : SCHEDULERS) names.add("sim/" + s + "/" + w + "/" + n);
+        }
+        names.add("queue/hq1/" + n);
+        names.add("drr/slice/" + n);
+        names.add("admit/pack/" + n);
+        return names;
+    }
+
+    /**
+     * Builds the fixture of a case (see the table above) and returns one
+     * invocation of it: n ops, returning a value that depends on the work
+     * so it cannot be dropped. The invocation can be repeated.
+     */
+    public static LongSupplier newCase(String name) {
+        String[] p = name.split("/");
+        int n = Integer.parseInt(p[p.length - 1]);
+        if (p[0].equals("sim")) {
+            String s = p[1];
+            Workload w = Workload.generate(p[2], n, 42, s.equals("EDF"), s.equals("FAIR"));
+            if (s.equals("DRR+log")) return () -> simulateLogged(w, new DRoundRobinScheduler());
+            newScheduler(s); // an unknown name fails here, not in the first round
+            return () -> simulate(w, newScheduler(s));
+        }
+        switch (p[0] + "/" + p[1]) {
+            case "queue/hq1":  return hq1Case(n);
+            case "drr/slice":  return drrSliceCase(n);
+            case "admit/pack": return batchPackCase(n);
+            default: throw new IllegalArgumentException("Unknown case: " + name);
+        }
+    }
+
+    private static SchedulingPolicy newScheduler(String name) {
+        switch (name) {
+            case "FCFS": return new FCFScheduler();
+            case "SRR":  return new SRoundRobinScheduler(17);
+            case "DRR":  return new DRoundRobinScheduler();
+            case "PRIO": return new PriorityScheduler(17, 10);
+            case "MLFQ": return new MLFQScheduler();
+            case "SJF":  return new SJFScheduler(false);
+            case "SRTF": return new SJFScheduler(true);
+            case "EDF":  return new EDFScheduler(true);
+            case "FAIR": return new FairShareScheduler(17, null);
+            default: throw new IllegalArgumentException("Unknown scheduler: " + name);
+        }
+    }
+
+    // returns the number of finished jobs so the work cannot be dropped
+    private static long simulate(Workload w, SchedulingPolicy s) {
+        return simulate(w, s, null);
+    }
+
+    // same, recording every decision to a temporary EventLog
+    private static long simulateLogged(Workload w, SchedulingPolicy s) {
+        try {
+            Path tmp = Files.createTempFile("bench-events", ".bin");
+            try (EventLog log = new EventLog(tmp)) {
+                return simulate(w, s, log);
+            } finally {
+                Files.deleteIfExists(tmp);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static long simulate(Workload w, SchedulingPolicy s, EventLog log) {
+        OtherKerServices oks = new OtherKerServices(MEMORY, DEVS);
+        PrManager pr = new PrManager(0, oks);
+        pr.setScheduler(s);
+        pr.setEventLog(log);
+
+        for (int i = 0; i < w.n; i++) {
+            pr.postArrival(i + 1, w.at[i], w.burst[i], w.prio[i], w.mem[i], w.dev[i], w.deadline[i], w.group[i]);
+            pr.runUntil(w.at[i]);
+        }
+        pr.runUntil(Long.MAX_VALUE);
+        return pr.getTotalFinishedCount();
+    }
+
+    // n jobs through HQ1 and back out; the queue is empty again afterwards
+    private static LongSupplier hq1Case(int n) {
+        Process[] jobs = new Process[n];
+        Random rnd = new Random(1);
+        for (int i = 0; i < n; i++) jobs[i] = new Process(i, i, 10, 1, 1 + rnd.nextInt(1000), 0, 0);
+        Queue q = new Queue("HQ1");
+
+        return () -> {
+            for (Process p : jobs) q.enqueue(p);
+            long sum = 0;
+            while (!q.isEmpty()) sum += q.dequeue().getMemoryReq();
+            return sum;
+        };
+    }
+
+    // n slices over n READY jobs: READY is back in its starting order afterwards
+    private static LongSupplier drrSliceCase(int n) {
+        Queue ready = new Queue("READY");
+        for (int i = 0; i < n; i++) ready.enqueue(new Process(i, i, 1 + (i % 40), 1, 1, 0, 0));
+
+        return () -> {
+            DRoundRobinScheduler drr = new DRoundRobinScheduler();
+            long sum = 0;
+            for (int i = 0; i < n; i++) {
+                Process p = drr.selectNextProcess(ready);
+                sum += drr.computeTimeSlice(p, ready);
+                ready.enqueue(p);
+            }
+            return sum;
+        };
+    }
+
+    // packs n jobs in batches of up to MAX_BATCH against a half-full system
+    private static LongSupplier batchPackCase(int n) {
+        int size = Math.min(n, BatchPacker.MAX_BATCH);
+        Process[] batch = new Process[size];
+        Random rnd = new Random(1);
+        for (int i = 0; i < size; i++) {
+            batch[i] = new Process(i, 0, 10, 1, 1 + rnd.nextInt(200), rnd.nextInt(3), 0);
+        }
+
+        return () -> {
+            BatchPacker packer = new BatchPacker();
+            for (int done = 0; done < n; done += size) {
+                packer.pack(batch, Math.min(size, n - done), MEMORY / 2, DEVS / 2);
+            }
+            return packer.getPackedJobs();
+        };
+    }
+
+    // ===== measurement =====
+
+    private static final class Result {
+        double opsPerSec;
+        double bytesPerOp;
+    }
+
+    private static Result measure(int ops, LongSupplier body) {
+        int reps = Math.max(1, MIN_ROUND_OPS / ops);
+        long sink = 0;
+        for (int i = 0; i < WARMUP_ROUNDS * reps; i++) sink += body.getAsLong();
+
+        Result best = new Result();
+        for (int i = 0; i < MEASURE_ROUNDS; i++) {
+            long b0 = allocatedBytes();
+            long t0 = System.nanoTime();
+            for (int r = 0; r < reps; r++) sink += body.getAsLong();
+            long t1 = System.nanoTime();
+            long b1 = allocatedBytes();
+
+            double roundOps = (double) ops * reps;
+            double ops_s = roundOps / ((t1 - t0) / 1e9);
+            if (ops_s > best.opsPerSec) {
+                best.opsPerSec = ops_s;
+                best.bytesPerOp = (b1 - b0) / roundOps;
+            }
+        }
+        if (sink == 42) System.out.print(""); // keep sink alive
+        return best;
+    }
+
+    private static long allocatedBytes() {
+        java.lang.management.ThreadMXBean mx = ManagementFactory.getThreadMXBean();
+        if (mx instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) mx).getCurrentThreadAllocatedBytes();
+        }
+        return 0;
+    }
+
+    private static void line(StringBuilder sb, String name, Result r, boolean sim) {
+        sb.append(String.format(Locale.ROOT, "%-36s %14.0f %14.1f %14s%n",
+                name, r.opsPerSec, r.bytesPerOp, sim ? String.format(Locale.ROOT, "%.0f", r.opsPerSec) : "-"));
+        System.err.println("done " + name);
+    }
+
+    private static boolean compare(String current, Path baseline, double tolerance) throws IOException {
+        Map<String, Double> base = new LinkedHashMap<>();
+        for (String l : Files.readAllLines(baseline)) {
+            if (l.startsWith("#") || l.isBlank()) continue;
+            String[] p = l.trim().split("\\s+");
+            base.put(p[0], Double.parseDouble(p[1]));
+        }
+
+        boolean ok = true;
+        Set<String> sizes = new HashSet<>();
+        System.out.println();
+        System.out.println("# vs baseline " + baseline);
+        for (String l : current.split("\n")) {
+            if (l.startsWith("#") || l.isBlank()) continue;
+            String[] p = l.trim().split("\\s+");
+            sizes.add(size(p[0]));
+            Double b = base.remove(p[0]);
+            if (b == null) {
+                ok = false;
+                System.out.printf(Locale.ROOT, "%-36s %8s  MISSING FROM BASELINE%n", p[0], "");
+                continue;
+            }
+            double change = Double.parseDouble(p[1]) / b - 1.0;
+            boolean regressed = change < -tolerance;
+            ok &= !regressed;
+            System.out.printf(Locale.ROOT, "%-36s %+7.1f%%%s%n", p[0], change * 100, regressed ? "  REGRESSION" : "");
+        }
+        // a baseline row of a size that was run, but not produced, is a dropped case
+        for (String name : base.keySet()) {
+            if (!sizes.contains(size(name))) continue;
+            ok = false;
+            System.out.printf(Locale.ROOT, "%-36s %8s  NOT RUN%n", name, "");
+        }
+        return ok;
+    }
+
+    private static String size(String caseName) {
+        return caseName.substring(caseName.lastIndexOf('/') + 1);
+    }
+
+    // ===== synthetic workloads =====
+
+    private static final class Workload {
+        final int n;
+        final long[] at, burst, mem, deadline;
+        final int[] dev, prio, group;
+
+        private Workload(int n) {
+            this.n = n;
+            at = new long[n]; burst = new long[n]; mem = new long[n]; deadline = new long[n];
+            dev = new int[n]; prio = new int[n]; group = new int[n];
+        }
+
+        /**
+         * uniform    : mem U[1,200], devs U[0,2], burst U[1,40]
+         * heavytail  : like uniform but Pareto(alpha=1.5) bursts
+         * memstarved : mem U[300,900], most jobs wait in the hold queues
+         * devstarved : devs U[2,8] out of 8
+         * longlight  : bursts U[1000,50000] at ~10% load, mostly alone on the CPU
+         * Arrivals are Poisson with ~90% offered CPU load unless noted.
+         * deadlines: every job gets arrival + burst * U[1.5,4] (for EDF)
+         * groups:    every job gets a group U[1,3] (for FAIR)
+         * Both come from a second stream, so the jobs themselves do not change.
+         */
+        static Workload generate(String kind, int n, long seed, boolean deadlines, boolean groups) {
+            Workload w = new Workload(n);
+            Random rnd = new Random(seed);
+            Random extra = new Random(seed + 1);
+            boolean longLight = kind.equals("longlight");
+            double meanBurst = kind.equals("heavytail") ? 15.0 : longLight ? 25_500.0 : 20.5;
+            double meanGap = meanBurst / (longLight ? 0.1 : 0.9);
+
+            double t = 1;
+            for (int i = 0; i < n; i++) {
+                t += -Math.log(1.0 - rnd.nextDouble()) * meanGap;
+                w.at[i] = (long) t;
+                w.prio[i] = 1 + rnd.nextInt(2);
+
+                if (kind.equals("heavytail")) {
+                    double x = 5.0 / Math.pow(1.0 - rnd.nextDouble(), 1 / 1.5);
+                    w.burst[i] = Math.min(100_000, (long) x);
+                } else if (longLight) {
+                    w.burst[i] = 1000 + rnd.nextInt(49_001);
+                } else {
+                    w.burst[i] = 1 + rnd.nextInt(40);
+                }
+
+                w.mem[i] = kind.equals("memstarved") ? 300 + rnd.nextInt(601) : 1 + rnd.nextInt(200);
+                w.dev[i] = kind.equals("devstarved") ? 2 + rnd.nextInt(7) : rnd.nextInt(3);
+
+                if (deadlines) w.deadline[i] = w.at[i] + (long) Math.ceil(w.burst[i] * (1.5 + 2.5 * extra.nextDouble()));
+                if (groups) w.group[i] = 1 + extra.nextInt(3);
+            }
+            return w;
+        }
+    }
+}
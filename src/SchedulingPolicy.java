@@ -0,0 +1,81 @@
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * SchedulingPolicy
+ * ----------------
+ * Contract between PrManager and a CPU scheduling policy.
+ *
+ * The policy supplies its own ready-set structure (one per core) and
+ * picks from it directly, so ordered policies (SRTF, EDF, lottery, ...)
+ * never copy READY to make a decision. PrManager owns the job lifecycle
+ * and reports it through the on*() notifications.
+ *
+ *   newReadySet()  -> empty READY structure for one core
+ *   pickNext()     -> remove and return the job to run (null = nothing)
+ *   timeSlice()    -> ticks the picked job may run before being re-evaluated
+ *
+ * Lifecycle notifications (all times are the simulation clock):
+ *   onEnqueue   job admitted into READY (once per job)
+ *   onPreempt   job left the CPU unfinished and went back to READY
+ *   onComplete  job finished
+ *   onSection   a C command started a new section; jobs of the previous
+ *               one are gone, finished or not
+ *
+ * shouldPreempt() is asked whenever a job joins the READY set of a busy
+ * core; returning true stops the running job at once (arrival preemption).
+ *
+ * deadlineOrdered() tells the deadline admission test that READY is served
+ * by deadline, so only work with a deadline can delay a deadline job.
+ *
+ * repeatSlice() > 0 promises that a job alone on its core, picked again at
+ * each slice end, always gets that slice and changes no policy state beyond
+ * what onSlicesSkipped() applies. PrManager then runs such stretches in one
+ * step: the skipped boundaries reach the policy as one onSlicesSkipped()
+ * call, and the onPreempt() that follows reports the whole stretch as 'ran'.
+ *
+ * saveState / loadState carry the policy's own counters through a
+ * Checkpoint; they are only loaded into a policy of the same class.
+ *
+ * Scheduler is the adapter for the classic Queue-based schedulers
+ * (FCFS, Static RR, Dynamic RR).
+ */
+public interface SchedulingPolicy {
+
+    QueueStore newReadySet();
+
+    Process pickNext(QueueStore ready, long now);
+
+    long timeSlice(Process selected, QueueStore ready, long now);
+
+    default void onEnqueue(Process p, long now) { }
+
+    // 'ran' = ticks used in the slice that just ended
+    default void onPreempt(Process p, long ran, long now) { }
+
+    default void onComplete(Process p, long now) { }
+
+    default void onSection(long start) { }
+
+    // 'remaining' = running job's burst left at 'now'
+    default boolean shouldPreempt(Process running, long remaining, Process arrived) {
+        return false;
+    }
+
+    default boolean deadlineOrdered() {
+        return false;
+    }
+
+    // 0 = re-evaluate a lone job at every slice end
+    default long repeatSlice(Process p) {
+        return 0;
+    }
+
+    // 'slices' re-picks of a lone job that PrManager skipped
+    default void onSlicesSkipped(Process p, long slices, long now) { }
+
+    default void saveState(DataOutput out) throws IOException { }
+
+    default void loadState(DataInput in) throws IOException { }
+}
@@ -0,0 +1,11 @@
+/**
+ * Callbacks for events that PrManager does not handle itself.
+ * DISPLAY and CONFIG events are fired in time order, after every CPU event
+ * at the same timestamp has been processed.
+ */
+public interface SimEventListener {
+
+    void onDisplay(long time);
+
+    default void onConfig(long time) { }
+}
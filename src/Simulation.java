@@ -0,0 +1,505 @@
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Locale;
+import java.util.function.Consumer;
+
+/**
+ * Simulation
+ * ----------
+ * One independent simulation context: clock, kernel services, process
+ * manager, scheduler and report output. Nothing is static, so any number
+ * of simulations can run side by side in one JVM (see SweepRunner).
+ *
+ * SimulationController feeds it commands from the input file;
+ * each method below corresponds to one command type.
+ */
+public class Simulation {
+
+    private long currentTime = 0L;
+
+    // Core system components, recreated on every C command
+    private KerServices sys = null;
+    private PrManager pr = null;
+
+    // Values of the current C command (for the CONFIG header)
+    private long cfgStart, cfgMem;
+    private int cfgDevs, cfgCores;
+
+    // The same scheduler instance is reused across multiple C commands
+    private final SchedulingPolicy scheduler;
+    private final String schedulerName;
+    private final PrManager.AdmissionPolicy admissionPolicy;
+
+    // Report output; null runs the simulation without printing anything
+    private final ReportWriter out;
+
+    // Finished-jobs table of the current section, kept sorted incrementally
+    private FinishedReport finishedReport = null;
+
+    // Memory placement model (see MemoryAllocator.create); null = single counter
+    private String allocatorSpec = null;
+
+    // Accounting implementation (see KerServices.create); null = locked
+    private String kernelKind = null;
+
+    // Streaming job metrics: summary block on every D, per-job rows on/off,
+    // optional JSON-lines export (one object per D)
+    private boolean showMetrics = false;
+    private boolean keepJobRows = true;
+    private ReportWriter metricsOut = null;
+
+    // Batch-window admission of SUBMIT (see PrManager.setBatchWindow); 0 = off
+    private long batchWindow = 0;
+
+    // Deadline admission test for jobs with DL= (see PrManager.DeadlineAdmission)
+    private PrManager.DeadlineAdmission deadlineAdmission = PrManager.DeadlineAdmission.OFF;
+
+    // Binary decision log (see EventLog); shared by every section, closed by the owner
+    private EventLog eventLog = null;
+
+    // Called with the finished PrManager whenever a configuration section ends
+    private Consumer<PrManager> sectionListener = null;
+
+    public Simulation(SchedulingPolicy scheduler,
+                      String schedulerName,
+                      PrManager.AdmissionPolicy admissionPolicy,
+                      ReportWriter out) {
+        this.scheduler = scheduler;
+        this.schedulerName = schedulerName;
+        this.admissionPolicy = admissionPolicy;
+        this.out = out;
+    }
+
+    public void setSectionListener(Consumer<PrManager> listener) {
+        this.sectionListener = listener;
+    }
+
+    public void setAllocator(String spec) {
+        this.allocatorSpec = spec;
+    }
+
+    public void setKernel(String kind) {
+        this.kernelKind = kind;
+    }
+
+    /**
+     * show: append the JobMetrics summary to every D display.
+     * keepJobRows = false: no per-job rows are kept; the finished-jobs table
+     * is replaced by the summary (constant memory for long runs).
+     */
+    public void setMetrics(boolean show, boolean keepJobRows) {
+        this.showMetrics = show || !keepJobRows;
+        this.keepJobRows = keepJobRows;
+    }
+
+    // Machine-readable metrics, one JSON object per line at every D
+    public void setMetricsExport(ReportWriter w) {
+        this.metricsOut = w;
+    }
+
+    public void setEventLog(EventLog log) {
+        this.eventLog = log;
+    }
+
+    public void setBatchWindow(long window) {
+        this.batchWindow = window;
+    }
+
+    public void setDeadlineAdmission(PrManager.DeadlineAdmission mode) {
+        this.deadlineAdmission = mode;
+    }
+
+    public long getCurrentTime() { return currentTime; }
+
+    // Whether a C command has set up the system yet
+    public boolean isConfigured() { return pr != null; }
+
+    /**
+     * One-line "key=value ..." summary of the current state: clock, queue
+     * lengths, resources in use and turnaround so far (service-mode STATUS).
+     * Counters only, no job lists, so it is cheap to build after every batch.
+     */
+    public StringBuilder appendStatus(StringBuilder sb) {
+        sb.append("time=").append(currentTime);
+        if (pr == null) return sb.append(" configured=false");
+
+        PrManager.View v = pr.view();
+        JobMetrics m = pr.getMetrics();
+        sb.append(" scheduler=").append(schedulerName)
+          .append(" cores=").append(v.getCoreCount())
+          .append(" finished=").append(v.getFinishedCount())
+          .append(" running=").append(v.getRunningCount())
+          .append(" ready=").append(v.getReadyCount())
+          .append(" submit=").append(v.getSubmitCount())
+          .append(" hq1=").append(v.getHQ1Count())
+          .append(" hq2=").append(v.getHQ2Count())
+          .append(" mem=").append(v.getMemInUse()).append('/').append(v.getMemorySize())
+          .append(" devs=").append(v.getDevsInUse()).append('/').append(v.getNoDevs())
+          .append(" meanTAT=");
+        JobMetrics.hundredths(sb, Math.round(m.getTurnaround().getMean() * 100));
+        return sb.append(" p99TAT=").append(m.getTurnaround().getPercentile(99));
+    }
+
+    /**
+     * configure()   (C command)
+     * -----------
+     * Reinitializes memory and device settings, creates a new PrManager
+     * and assigns the scheduler.
+     */
+    public void configure(long start, long memorySize, int numDevs) {
+        configure(start, memorySize, numDevs, 1);
+    }
+
+    // Same, with 'cores' simulated CPUs sharing memory and devices
+    public void configure(long start, long memorySize, int numDevs, int cores) {
+        endSection();
+        scheduler.onSection(start);
+
+        // Create new kernel system + process manager
+        sys = KerServices.create(kernelKind, memorySize, numDevs, MemoryAllocator.create(allocatorSpec, memorySize));
+        pr  = new PrManager(start, sys, cores);
+        pr.setAdmissionPolicy(admissionPolicy);
+        pr.setBatchWindow(batchWindow);
+        pr.setDeadlineAdmission(deadlineAdmission);
+        pr.setScheduler(scheduler);
+        cfgStart = start;
+        cfgMem = memorySize;
+        cfgDevs = numDevs;
+        cfgCores = cores;
+        if (eventLog != null) eventLog.record(start, EventLog.CONFIG, -1, memorySize, cores);
+        attach();
+
+        currentTime = 0;
+
+        // Allow immediate internal processing
+        pr.postConfig(currentTime);
+        pr.runUntil(currentTime);
+    }
+
+    // Hooks this simulation's output, options and listener onto 'pr'
+    private void attach() {
+        pr.setKeepFinishedRows(keepJobRows);
+        pr.setEventLog(eventLog);
+        finishedReport = new FinishedReport(pr.getFinishedTable());
+
+        pr.setEventListener(new SimEventListener() {
+            @Override
+            public void onDisplay(long time) {
+                if (out != null) printSystemStatus(time);
+                if (metricsOut != null) exportMetrics(time);
+            }
+
+            @Override
+            public void onConfig(long time) {
+                if (out == null) return;
+                // Print formatted configuration header to output file
+                StringBuilder sb = out.buf();
+                sb.append(ReportWriter.NL).append("CONFIG at ");
+                ReportWriter.fixed2(sb, cfgStart)
+                        .append(": mem=").append(cfgMem)
+                        .append(" devices=").append(cfgDevs)
+                        .append(" scheduler=").append(schedulerName)
+                        .append(admissionPolicy == PrManager.AdmissionPolicy.BEST_FIT ? " admission=BestFit" : "")
+                        .append(cfgCores > 1 ? " cores=" + cfgCores : "")
+                        .append(batchWindow > 0 ? " batch-window=" + batchWindow : "")
+                        .append(deadlineAdmission != PrManager.DeadlineAdmission.OFF
+                                ? " deadline-admission=" + deadlineAdmission.name().toLowerCase(Locale.ROOT) : "")
+                        .append(sys.getAllocator() != null ? " allocator=" + sys.getAllocator().getName() : "")
+                        .append(sys instanceof AtomicKerServices ? " kernel=atomic" : "")
+                        .append(ReportWriter.NL).append(ReportWriter.NL);
+                out.endRecord();
+            }
+        });
+    }
+
+    // ===== checkpoint (see Checkpoint) =====
+
+    // Clock, current C values and the whole PrManager (counter memory model only)
+    public void writeCheckpoint(DataOutput o) throws IOException {
+        if (pr == null) throw new IllegalStateException("nothing to checkpoint before the first C command");
+        o.writeLong(currentTime);
+        o.writeLong(cfgStart);
+        o.writeLong(cfgMem);
+        o.writeInt(cfgDevs);
+        o.writeInt(cfgCores);
+        pr.writeCheckpoint(o);
+    }
+
+    /**
+     * Continues from a checkpoint with this simulation's scheduler, options
+     * and output. The report starts at the fork point; finished-job rows and
+     * metrics from before it are carried over.
+     */
+    public void restoreCheckpoint(DataInput in) throws IOException {
+        endSection();
+        currentTime = in.readLong();
+        cfgStart = in.readLong();
+        cfgMem = in.readLong();
+        cfgDevs = in.readInt();
+        cfgCores = in.readInt();
+
+        pr = PrManager.readCheckpoint(in, scheduler);
+        sys = pr.getKerServices();
+        pr.setAdmissionPolicy(admissionPolicy);
+        pr.setBatchWindow(batchWindow);
+        pr.setDeadlineAdmission(deadlineAdmission);
+        attach();
+    }
+
+    /**
+     * arrival()   (A command)
+     * ---------
+     * Posts the arrival and runs the event engine up to it
+     * (arrivals in the past are delivered at currentTime).
+     */
+    public void arrival(long at, long pid, long mReq, int dReq, long bt, int pri) {
+        arrival(at, pid, mReq, dReq, bt, pri, 0);
+    }
+
+    // Same, with the optional DL= completion deadline (0 = none)
+    public void arrival(long at, long pid, long mReq, int dReq, long bt, int pri, long deadline) {
+        arrival(at, pid, mReq, dReq, bt, pri, deadline, 0);
+    }
+
+    // Same, with the G= owner group (0 = default group)
+    public void arrival(long at, long pid, long mReq, int dReq, long bt, int pri, long deadline, int group) {
+        pr.postArrival(pid, at, bt, pri, mReq, dReq, deadline, group);
+        if (at > currentTime) {
+            currentTime = at;
+        }
+        pr.runUntil(currentTime);
+    }
+
+    /**
+     * display()   (D command)
+     * ---------
+     * Jumps to the requested display time; the DISPLAY event prints it.
+     */
+    public void display(long t) {
+        if (t >= currentTime) {
+            pr.postDisplay(t);
+            currentTime = t;
+            pr.runUntil(t);
+        }
+    }
+
+    public void unknown(String line) {
+        if (out != null) out.println("DEBUG -> Unknown line: " + line);
+    }
+
+    // Lets the final internal events finish and closes the last section
+    public void finish() {
+        if (pr != null) pr.cpuTimeAdvance(0);
+        endSection();
+
+        if (out != null) {
+            out.println();
+            out.println("--- Simulation finished at time " + (double) currentTime + " ---");
+        }
+    }
+
+    private void endSection() {
+        if (pr != null && sectionListener != null) sectionListener.accept(pr);
+    }
+
+    /**
+     * printSystemStatus()
+     * -------------------
+     * Prints a formatted snapshot of the system state:
+     * - memory and device usage
+     * - ready and hold queues
+     * - finished process table
+     * Formats straight into the ReportWriter buffer (no String.format).
+     * Counters and queues are read through one PrManager.View, in place.
+     */
+    private void printSystemStatus(long t) {
+        StringBuilder sb = out.buf();
+        String nl = ReportWriter.NL;
+        PrManager.View v = pr.view();
+
+        long totalMem   = v.getMemorySize();
+        long usedMem    = v.getMemInUse();
+        long availMem   = totalMem - usedMem;
+
+        int  totalDevs  = v.getNoDevs();
+        int  usedDevs   = v.getDevsInUse();
+        int  availDevs  = totalDevs - usedDevs;
+
+        sb.append("-------------------------------------------------------").append(nl);
+        sb.append("System Status:                                         ").append(nl);
+        sb.append("-------------------------------------------------------").append(nl);
+        ReportWriter.fixed2(sb.append("          Time: "), t).append(nl);
+        sb.append("  Total Memory: ").append(totalMem).append(nl);
+        sb.append(" Avail. Memory: ").append(availMem).append(nl);
+        sb.append(" Total Devices: ").append(totalDevs).append(nl);
+        sb.append("Avail. Devices: ").append(availDevs).append(nl);
+        sb.append(nl);
+
+        MemoryAllocator alloc = sys.getAllocator();
+        if (alloc != null) {
+            sb.append("     Allocator: ").append(alloc.getName()).append(nl);
+            sb.append("  Largest Hole: ").append(alloc.getLargestFree()).append(nl);
+            sb.append(" Fragmentation: ").append(alloc.getFragmentationPercent()).append('%').append(nl);
+            sb.append("   Failed Fits: ").append(alloc.getFailedFits()).append(nl);
+            sb.append("   Compactions: ").append(alloc.getCompactions()).append(nl);
+            sb.append(nl);
+        }
+
+        if (pr.getCoreCount() > 1) appendCores(sb, t);
+        if (batchWindow > 0) appendBatching(sb);
+        if (scheduler instanceof FairShareScheduler) appendGroups(sb, (FairShareScheduler) scheduler);
+
+        // Ready queue
+        appendJobList(sb, "Jobs in Ready List                                      ", v.getReadyCount(), v::forEachReady);
+
+        // Submit queue
+        appendJobList(sb, "Jobs in Long Job List                                   ", v.getSubmitCount(), v::forEachSubmit);
+
+        // Hold List 1
+        appendJobList(sb, "Jobs in Hold List 1                                     ", v.getHQ1Count(), v::forEachHQ1);
+
+        // Hold List 2
+        appendJobList(sb, "Jobs in Hold List 2                                     ", v.getHQ2Count(), v::forEachHQ2);
+        sb.append(nl);
+
+        if (showMetrics) {
+            pr.getMetrics().appendSummary(sb, t, pr.getTotalBusyTime(), pr.getCoreCount());
+        }
+
+        if (!keepJobRows) {
+            sb.append(nl);
+            out.endRecord();
+            return;
+        }
+
+        // Finished jobs table
+        sb.append("Finished Jobs (detailed)                                ").append(nl);
+        sb.append("--------------------------------------------------------").append(nl);
+        sb.append("  Job    ArrivalTime     CompleteTime     TurnaroundTime    WaitingTime").append(nl);
+        sb.append("------------------------------------------------------------------------").append(nl);
+
+        int rows = finishedReport.appendRows(sb, t);
+
+        if (rows == 0) {
+            sb.append("  EMPTY").append(nl);
+        } else {
+            // Only print the total at the final display
+            if (t == 999999L) {
+                int total = pr.getTotalFinishedCount();
+                sb.append("Total Finished Jobs:             ").append(total).append(nl);
+            }
+        }
+
+        sb.append(nl);
+        sb.append(nl);
+        out.endRecord();
+    }
+
+    private void exportMetrics(long t) {
+        StringBuilder sb = metricsOut.buf();
+        pr.getMetrics().appendJson(sb, t, t, pr.getTotalBusyTime(), pr.getCoreCount());
+        sb.append(ReportWriter.NL);
+        metricsOut.endRecord();
+    }
+
+    // Per-core and combined CPU metrics (multi-core runs only)
+    private void appendCores(StringBuilder sb, long t) {
+        String nl = ReportWriter.NL;
+        sb.append("CPU Cores                                               ").append(nl);
+        sb.append("--------------------------------------------------------").append(nl);
+
+        long busy = 0, disp = 0, done = 0, steals = 0;
+        int n = pr.getCoreCount();
+        for (int i = 0; i < n; i++) {
+            long b = pr.getCoreBusyTime(i);
+            busy += b;
+            disp += pr.getCoreDispatches(i);
+            done += pr.getCoreCompletions(i);
+            steals += pr.getCoreSteals(i);
+
+            sb.append("Core ").append(i).append(" , busy ").append(b)
+              .append(" , util ").append(percent(b, t))
+              .append("% , dispatches ").append(pr.getCoreDispatches(i))
+              .append(" , finished ").append(pr.getCoreCompletions(i))
+              .append(" , stolen ").append(pr.getCoreSteals(i))
+              .append(" , ready ").append(pr.getCoreReadySize(i)).append(nl);
+        }
+        sb.append("All    , busy ").append(busy)
+          .append(" , util ").append(percent(busy, t * n))
+          .append("% , dispatches ").append(disp)
+          .append(" , finished ").append(done)
+          .append(" , stolen ").append(steals).append(nl);
+        sb.append(nl);
+    }
+
+    // Batch-window admission: what packing admitted vs arrival-order greedy
+    private void appendBatching(StringBuilder sb) {
+        String nl = ReportWriter.NL;
+        BatchPacker b = pr.getBatchPacker();
+        sb.append("Batch Admission                                         ").append(nl);
+        sb.append("--------------------------------------------------------").append(nl);
+        sb.append("       Batches: ").append(b.getBatches())
+          .append(" , jobs ").append(b.getJobs())
+          .append(" , largest ").append(b.getLargest()).append(nl);
+        appendGain(sb.append("   Admit. Jobs: "), b.getPackedJobs(), b.getGreedyJobs()).append(nl);
+        appendGain(sb.append(" Admit. Memory: "), b.getPackedMem(), b.getGreedyMem()).append(nl);
+        appendGain(sb.append("Admit. Devices: "), b.getPackedDevs(), b.getGreedyDevs()).append(nl);
+        sb.append(nl);
+    }
+
+    // Fair share: CPU each group received vs its weight's share. Totals are
+    // cumulative since the scheduler was created (it outlives C sections).
+    private static void appendGroups(StringBuilder sb, FairShareScheduler fs) {
+        String nl = ReportWriter.NL;
+        sb.append("Group Shares                                            ").append(nl);
+        sb.append("--------------------------------------------------------").append(nl);
+
+        long cpu = 0, weight = 0;
+        for (FairShareScheduler.Group g : fs.getGroups()) {
+            cpu += g.getCpu();
+            weight += g.getWeight();
+        }
+        for (FairShareScheduler.Group g : fs.getGroups()) {
+            sb.append("Group ").append(g.getId()).append(" , weight ").append(g.getWeight())
+              .append(" , cpu ").append(g.getCpu()).append(" , share ");
+            JobMetrics.hundredths(sb, cpu <= 0 ? 0 : g.getCpu() * 10000 / cpu).append("% , target ");
+            JobMetrics.hundredths(sb, weight <= 0 ? 0 : g.getWeight() * 10000 / weight)
+              .append("% , jobs ").append(g.getJobs())
+              .append(" , active ").append(g.getActive()).append(nl);
+        }
+        if (fs.getGroups().isEmpty()) sb.append("  EMPTY").append(nl);
+        sb.append(nl);
+    }
+
+    // "packed P , greedy G , gain +X.XX%"
+    private static StringBuilder appendGain(StringBuilder sb, long packed, long greedy) {
+        sb.append("packed ").append(packed).append(" , greedy ").append(greedy).append(" , gain ");
+        if (greedy <= 0) return sb.append('-');
+        long hundredths = (packed - greedy) * 10000 / greedy;
+        if (hundredths >= 0) sb.append('+');
+        return JobMetrics.hundredths(sb, hundredths).append('%');
+    }
+
+    // whole percent, rounded down
+    private static long percent(long part, long whole) {
+        return whole <= 0 ? 0 : part * 100 / whole;
+    }
+
+    // 'jobs' walks one queue of a View in place (e.g. view::forEachReady)
+    private static void appendJobList(StringBuilder sb, String title, int count,
+                                      Consumer<Consumer<Process>> jobs) {
+        String nl = ReportWriter.NL;
+        sb.append(title).append(nl);
+        sb.append("--------------------------------------------------------").append(nl);
+        if (count == 0) {
+            sb.append("  EMPTY").append(nl);
+        } else {
+            jobs.accept(p -> {
+                sb.append("Job ID ").append(p.getPID()).append(" , ");
+                ReportWriter.fixed2(sb, p.getBurstTime()).append(" Cycles left to completion.").append(nl);
+            });
+        }
+        sb.append(nl);
+    }
+}
@@ -1,215 +1,436 @@
 import java.io.*;
+import java.nio.file.Paths;
 import java.util.*;
 
 /**
  * SimulationController
  * ---------------------
- * Reads input commands from the input file,
- * drives the global simulation time, manages configuration resets,
- * and produces formatted output into "group7_output.txt".
+ * Reads input commands from the input file and hands each one to a
+ * Simulation context, which drives the simulation time, manages
+ * configuration resets and produces formatted output into "group7_output.txt".
  *
  * This class does NOT perform scheduling logic itself.
- * It delegates all process management to the PrManage.
+ * It delegates all process management to the PrManager.
+ *
+ * Run with --sweep ... to start a parallel parameter sweep instead (see SweepRunner).
+ * --input=file selects the input; a BinaryTrace file is detected and replayed directly.
+ * --checkpoint=T:file / --restore=file fork a run part-way through (see Checkpoint).
+ * --kernel=atomic accounts memory and devices lock-free (see KerServices).
+ * --sched=NAME [--quantum=Q] picks the scheduler without prompting; --output=file
+ * renames the report. --serve=ADDR runs as a service fed over a socket (see SimulationService).
+ * A lines may end in DL=T (absolute deadline); --sched=EDF serves them earliest first and
+ * --deadline-admission=reject|hold tests each such job against the work already queued.
+ * An optional G=ID field names the job's group; --sched=FAIR shares the CPU between groups
+ * by --group-weights=ID:W,... (see FairShareScheduler).
  */
 public class SimulationController {
 
-    private static long currentTime = 0L;
-
-    // Core system components Used Later
-    private static OtherKerServices sys = null;
-    private static PrManager pr = null;
+    // Created on the first C command, once the scheduler has been chosen
+    private static Simulation sim = null;
 
-    // Tracks which scheduler type is used and whether the user already selected it
+    // Tracks which scheduler type is used
     private static String schedulerName = "DRR";
-    private static boolean schedulerChosen = false;
 
-    // Stores the chosen scheduler so it can be reused across multiple C commands
-    private static Scheduler GLOBAL_SCHEDULER = null;
+    // Hold-queue admission policy (--admission=strict|bestfit on the command line)
+    private static PrManager.AdmissionPolicy admissionPolicy = PrManager.AdmissionPolicy.STRICT_HEAD;
+
+    // Memory placement model (--allocator=firstfit|bestfit[+compact]|buddy|slab)
+    private static String allocatorSpec = null;
+
+    // --kernel=locked|atomic: resource accounting (see KerServices)
+    private static String kernelKind = null;
+
+    // --metrics: summary on every D; --metrics=only: summary instead of per-job rows
+    private static boolean showMetrics = false;
+    private static boolean keepJobRows = true;
+
+    // --metrics-out=file: JSON line per D
+    private static ReportWriter metricsOut = null;
+
+    // --batch-window=W: admit arrivals in W-tick batches, bin-packed (0 = greedy)
+    private static long batchWindow = 0;
+
+    // --deadline-admission=reject|hold: test jobs with DL= before admitting them
+    private static PrManager.DeadlineAdmission deadlineAdmission = PrManager.DeadlineAdmission.OFF;
+
+    // --event-log=file: binary record of every scheduling decision
+    private static EventLog eventLog = null;
+
+    // --checkpoint=T:file: snapshot before the first record later than T
+    // --restore=file:      continue from such a snapshot (any scheduler)
+    private static long checkpointAt = -1;
+    private static String checkpointFile = null;
+    private static String restoreFile = null;
+    private static long resumeFrom = 0;   // input records covered by the restored snapshot
+
+    // --sched=NAME [--quantum=Q]: scheduler without the interactive prompt
+    private static String schedulerArg = null;
+    private static int quantumArg = 0;
+
+    // --group-weights=ID:W,...: CPU weights for --sched=FAIR (unlisted groups weigh 1)
+    private static String groupWeights = null;
+
+    // --serve=[host:]port | unix:path  runs as a long-lived service (see SimulationService)
+    private static String serveAddress = null;
+
+    // --output=file: report file
+    private static String outputFile = "group7_output.txt";
 
     // Shared scanner
     private static final Scanner SC = new Scanner(System.in);
 
-    // Output goes into this file
-    private static PrintWriter out;
+    // Output goes into this file (written by a background thread)
+    private static ReportWriter out;
 
     public static void main(String[] args) {
 
+        if (args.length > 0 && args[0].equalsIgnoreCase("--sweep")) {
+            SweepRunner.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+
         // The simulator reads commands from this file
         String fileName = "src/input.txt";
 
+        for (String arg : args) {
+            if (arg.startsWith("--input=")) {
+                fileName = arg.substring("--input=".length());
+            } else if (arg.equalsIgnoreCase("--admission=bestfit")) {
+                admissionPolicy = PrManager.AdmissionPolicy.BEST_FIT;
+            } else if (arg.equalsIgnoreCase("--admission=strict")) {
+                admissionPolicy = PrManager.AdmissionPolicy.STRICT_HEAD;
+            } else if (arg.startsWith("--allocator=")) {
+                allocatorSpec = arg.substring("--allocator=".length());
+                MemoryAllocator.create(allocatorSpec, 1); // fail fast on a bad name
+            } else if (arg.startsWith("--kernel=")) {
+                kernelKind = arg.substring("--kernel=".length());
+            } else if (arg.equalsIgnoreCase("--metrics")) {
+                showMetrics = true;
+            } else if (arg.equalsIgnoreCase("--metrics=only")) {
+                showMetrics = true;
+                keepJobRows = false;
+            } else if (arg.startsWith("--checkpoint=")) {
+                String v = arg.substring("--checkpoint=".length());
+                int colon = v.indexOf(':');
+                checkpointAt = Long.parseLong(v.substring(0, colon));
+                checkpointFile = v.substring(colon + 1);
+            } else if (arg.startsWith("--sched=")) {
+                schedulerArg = arg.substring("--sched=".length());
+            } else if (arg.startsWith("--quantum=")) {
+                quantumArg = Integer.parseInt(arg.substring("--quantum=".length()));
+            } else if (arg.startsWith("--group-weights=")) {
+                groupWeights = arg.substring("--group-weights=".length());
+            } else if (arg.startsWith("--serve=")) {
+                serveAddress = arg.substring("--serve=".length());
+            } else if (arg.startsWith("--output=")) {
+                outputFile = arg.substring("--output=".length());
+            } else if (arg.equalsIgnoreCase("--deadline-admission=reject")) {
+                deadlineAdmission = PrManager.DeadlineAdmission.REJECT;
+            } else if (arg.equalsIgnoreCase("--deadline-admission=hold")) {
+                deadlineAdmission = PrManager.DeadlineAdmission.HOLD;
+            } else if (arg.startsWith("--batch-window=")) {
+                batchWindow = Long.parseLong(arg.substring("--batch-window=".length()));
+            } else if (arg.startsWith("--restore=")) {
+                restoreFile = arg.substring("--restore=".length());
+            } else if (arg.startsWith("--event-log=")) {
+                try {
+                    eventLog = new EventLog(Paths.get(arg.substring("--event-log=".length())));
+                } catch (IOException e) {
+                    System.out.println("Cannot create event log.");
+                    return;
+                }
+            } else if (arg.startsWith("--metrics-out=")) {
+                try {
+                    metricsOut = new ReportWriter(new BufferedWriter(
+                            new FileWriter(arg.substring("--metrics-out=".length()))));
+                } catch (IOException e) {
+                    System.out.println("Cannot create metrics file.");
+                    return;
+                }
+            }
+        }
+
+        // fail fast on a bad --kernel, or --kernel=atomic with a placement model
+        KerServices.create(kernelKind, 1, 0, MemoryAllocator.create(allocatorSpec, 1));
+
         try {
             // Create output file writer
-            out = new PrintWriter(new FileWriter("group7_output.txt"));
+            out = new ReportWriter(new BufferedWriter(new FileWriter(outputFile)));
         } catch (IOException e) {
             System.out.println("Cannot create output file.");
             return;
         }
 
-        try (BufferedReader br = new BufferedReader(new FileReader(fileName))) {
+        if (serveAddress != null) {
+            // never prompt in service mode
+            if (schedulerArg == null) schedulerArg = "DRR";
+            try (SimulationService service = new SimulationService(newSimulation(), serveAddress)) {
+                System.out.println("Serving on " + service.getAddress());
+                service.run();
+            } catch (IOException e) {
+                System.out.println("Service error: " + e.getMessage());
+            }
+            closeOutputs();
+            return;
+        }
 
-            String line;
+        if (restoreFile != null) {
+            try {
+                sim = newSimulation();
+                resumeFrom = Checkpoint.restore(sim, Checkpoint.load(Paths.get(restoreFile)));
+                System.out.println("Restored " + restoreFile + ", resuming after input record " + resumeFrom);
+            } catch (IOException e) {
+                System.out.println("Cannot restore checkpoint: " + e.getMessage());
+                closeOutputs();
+                return;
+            }
+        }
 
-            // Read each line of input and dispatch based on first character
-            while ((line = br.readLine()) != null) {
-                line = line.trim();
-                if (line.isEmpty()) continue;
+        if (BinaryTrace.isBinary(Paths.get(fileName))) {
+            replayBinary(fileName);
+            closeOutputs();
+            return;
+        }
+
+        try (CommandReader in = new CommandReader(Paths.get(fileName))) {
 
-                char type = line.charAt(0);
+            long[] f = new long[TraceBuffer.FIELDS]; // the current C / A / D line, slots as in Trace
+
+            // Read each line of input and dispatch based on first character
+            while (in.next()) {
+                char type = in.type();
+
+                long consumed = in.lineNumber() - 1;
+                if (consumed < resumeFrom) continue; // already in the restored state
+                if (type == 'C' || type == 'A' || type == 'D') {
+                    in.record(f, 0);
+                    maybeCheckpoint(consumed, f[0]);
+                }
 
                 switch (type) {
 
                     // ----- C COMMAND -------------------------------------------------
                     case 'C': {
-                        List<Long> v = parseCmd(line);
-                        long start   = v.get(0);
-                        long memSize = v.get(1);
-                        int  devs    = v.get(2).intValue();
-
-                        sysGen(start, memSize, devs);
+                        long start   = f[0];
+                        long memSize = f[1];
+                        int  devs    = (int) f[2];
+                        int  cores   = (int) Math.max(1, f[3]); // optional N=
+
+                        // Only ask the user for the scheduler the FIRST time a C command appears.
+                        if (sim == null) sim = newSimulation();
+                        sim.configure(start, memSize, devs, cores);
                         break;
                     }
 
                     // ----- A COMMAND ------------------------------------------------
                     case 'A': {
-                        List<Long> a = parseCmd(line);
-                        long at   = a.get(0);
-                        long pid  = a.get(1);
-                        long mReq = a.get(2);
-                        int  dReq = a.get(3).intValue();
-                        long bt   = a.get(4);
-                        int  pri  = a.get(5).intValue();
-
-                        // If this arrival is in the future, advance time to that moment
-                        if (at > currentTime) {
-                            pr.cpuTimeAdvance(at - currentTime);
-                            currentTime = at;
-                        }
-
-                        // Let PrManager create the Process and enqueue to SUBMIT
-                        pr.procArrivalRoutine(pid, at, bt, pri, mReq, dReq);
-
-                        // Allow admissions
-                        pr.cpuTimeAdvance(0);
+                        long at   = f[0];
+                        long pid  = f[1];
+                        long mReq = f[2];
+                        int  dReq = (int) f[3];
+                        long bt   = f[4];
+                        int  pri  = (int) f[5];
+                        long dl   = f[6];        // optional DL=, 0 = none
+                        int  grp  = (int) f[7];  // optional G=, 0 = default group
+
+                        sim.arrival(at, pid, mReq, dReq, bt, pri, dl, grp);
                         break;
                     }
 
 
                     // ----- D COMMAND ------------------------------------------------
                     case 'D': {
-                        long t = parseCmd(line).get(0);
-
-                        // Jump to the requested display time
-                        if (t >= currentTime) {
-                            pr.cpuTimeAdvance(t - currentTime);
-                            currentTime = t;
-                            printSystemStatus(t);
-                        }
+                        sim.display(f[0]);
                         break;
                     }
 
                     // ----- UNKNOWN LINE ---------------------------------------------------
                     default:
-                        out.println("DEBUG -> Unknown line: " + line);
+                        out.println("DEBUG -> Unknown line: " + in.lineText());
                 }
             }
 
-            // final internal events finish
-            pr.cpuTimeAdvance(0);
+            maybeCheckpoint(in.lineNumber(), Long.MAX_VALUE);
 
-            out.println();
-            out.println("--- Simulation finished at time " + (double) currentTime + " ---");
+            // final internal events finish
+            if (sim != null) sim.finish();
 
         } catch (IOException e) {
             out.println("File error: " + e.getMessage());
         }
 
-        out.close();
+        closeOutputs();
     }
 
     /**
-     * sysGen()
-     * -------
-     * Called whenever the input file provides a new configuration (C line).
-     * Reinitializes memory and device settings, creates a new PrManager,
-     * and assigns the scheduler. Scheduler is selected only once.
+     * replayBinary()
+     * --------------
+     * Same as the text loop, over a BinaryTrace file (see BinaryTrace for
+     * the format and the converter). Records are read in place from the
+     * mapped file, so there is no parsing at startup.
      */
-    private static void sysGen(long start, long memorySize, int numDevs) {
+    private static void replayBinary(String fileName) {
+        try (BinaryTrace t = BinaryTrace.open(Paths.get(fileName))) {
+            for (int i = (int) resumeFrom; i < t.size(); i++) {
+                maybeCheckpoint(i, t.field(i, 0));
+                switch (t.type(i)) {
+                    case 'C':
+                        if (sim == null) sim = newSimulation();
+                        sim.configure(t.field(i, 0), t.field(i, 1), (int) t.field(i, 2),
+                                (int) Math.max(1, t.field(i, 3)));
+                        break;
+                    case 'A':
+                        sim.arrival(t.field(i, 0), t.field(i, 1), t.field(i, 2),
+                                (int) t.field(i, 3), t.field(i, 4), (int) t.field(i, 5), t.field(i, 6),
+                                (int) t.field(i, 7));
+                        break;
+                    case 'D':
+                        sim.display(t.field(i, 0));
+                        break;
+                    default:
+                        break;
+                }
+            }
+            maybeCheckpoint(t.size(), Long.MAX_VALUE);
+            if (sim != null) sim.finish();
+        } catch (IOException e) {
+            out.println("File error: " + e.getMessage());
+        }
+    }
 
-        // Create new kernel system + process manager
-        sys = new OtherKerServices(memorySize, numDevs);
-        pr  = new PrManager(start, sys);
+    /**
+     * Writes the --checkpoint snapshot once the next record is later than
+     * T (or at end of input). 'consumed' = input records already applied.
+     */
+    private static void maybeCheckpoint(long consumed, long nextTime) {
+        if (checkpointFile == null || sim == null || nextTime <= checkpointAt) return;
+        try {
+            Checkpoint.save(Paths.get(checkpointFile), Checkpoint.capture(sim, consumed));
+            System.out.println("Checkpoint after input record " + consumed + " written to " + checkpointFile);
+        } catch (IOException | IllegalStateException e) {
+            System.out.println("Cannot write checkpoint: " + e.getMessage());
+        }
+        checkpointFile = null;
+    }
 
-        // Only ask the user for the scheduler the FIRST time a C command appears.
-        if (!schedulerChosen) {
+    // Created on the first C command; asks for the scheduler
+    private static Simulation newSimulation() {
+        Simulation s = new Simulation(chooseScheduler(), schedulerName, admissionPolicy, out);
+        s.setAllocator(allocatorSpec);
+        s.setKernel(kernelKind);
+        s.setMetrics(showMetrics, keepJobRows);
+        s.setMetricsExport(metricsOut);
+        s.setEventLog(eventLog);
+        s.setBatchWindow(batchWindow);
+        s.setDeadlineAdmission(deadlineAdmission);
+        return s;
+    }
 
-            try {
-                System.out.print("Choose scheduler [DRR | SRR | FCFS]: ");
-                String kind = SC.nextLine().trim().toUpperCase(Locale.ROOT);
+    private static void closeOutputs() {
+        try {
+            out.close();
+            if (metricsOut != null) metricsOut.close();
+            if (eventLog != null) eventLog.close();
+        } catch (IOException e) {
+            System.out.println("Cannot write output file: " + e.getMessage());
+        }
+    }
 
-                Scheduler chosen;
+    /**
+     * chooseScheduler()
+     * -----------------
+     * Asks the user which scheduler to use. Called once; the same
+     * instance is reused for every later configuration.
+     */
+    private static SchedulingPolicy chooseScheduler() {
+        try {
+            String kind = schedulerArg;
+            if (kind == null) {
+                System.out.print("Choose scheduler [DRR | SRR | FCFS | PRIO | MLFQ | SJF | SRTF | EDF | FAIR]: ");
+                kind = SC.nextLine();
+            }
+            kind = kind.trim().toUpperCase(Locale.ROOT);
 
-                switch (kind) {
-                    case "SRR": {
+            switch (kind) {
+                case "SRR": {
+                    int q = quantumArg;
+                    if (q <= 0 && schedulerArg != null) q = 17;   // 10 + team 7
+                    if (q <= 0) {
                         System.out.print("Enter team number (for quantum = 10 + team) (WE ARE TEAM 7): ");
                         int team = Integer.parseInt(SC.nextLine().trim());
-                        int q = 10 + team;
-
-                        chosen = new SRoundRobinScheduler(q);
-                        schedulerName = "StaticRR";
-
-                        System.out.println("Scheduler = Static RR, quantum = " + q);
-                        break;
+                        q = 10 + team;
                     }
-                    case "FCFS": {
-                        chosen = new FCFScheduler();
-                        schedulerName = "FCFS";
 
-                        System.out.println("Scheduler = FCFS");
-                        break;
-                    }
-                    case "DRR":
-                    default: {
-                        chosen = new DRoundRobinScheduler();
-                        schedulerName = "DynamicRR";
-
-                        System.out.println("Scheduler = Dynamic RR (SR/AR)");
-                    }
+                    schedulerName = "StaticRR";
+                    System.out.println("Scheduler = Static RR, quantum = " + q);
+                    return new SRoundRobinScheduler(q);
+                }
+                case "FCFS": {
+                    schedulerName = "FCFS";
+                    System.out.println("Scheduler = FCFS");
+                    return new FCFScheduler();
+                }
+                case "PRIO": {
+                    int q = quantumArg > 0 ? quantumArg : 17;
+                    schedulerName = "Priority";
+                    System.out.println("Scheduler = Priority (preemptive on arrival, quantum = " + q
+                            + ", aging 1 level / 10 decisions)");
+                    return new PriorityScheduler(q, 10);
+                }
+                case "MLFQ": {
+                    schedulerName = "MLFQ";
+                    System.out.println("Scheduler = MLFQ, quanta = 8/16/32, boost every 200 decisions");
+                    return new MLFQScheduler();
+                }
+                case "SJF": {
+                    schedulerName = "SJF";
+                    System.out.println("Scheduler = SJF (non-preemptive)");
+                    return new SJFScheduler(false);
+                }
+                case "SRTF": {
+                    schedulerName = "SRTF";
+                    System.out.println("Scheduler = SRTF (preemptive SJF)");
+                    return new SJFScheduler(true);
+                }
+                case "EDF": {
+                    schedulerName = "EDF";
+                    System.out.println("Scheduler = EDF (preemptive, earliest deadline first)");
+                    return new EDFScheduler(true);
+                }
+                case "FAIR": {
+                    int q = quantumArg > 0 ? quantumArg : 17;
+                    FairShareScheduler fair = new FairShareScheduler(q, groupWeights);
+                    schedulerName = "FairShare";
+                    System.out.println("Scheduler = Fair share by group, quantum = " + q
+                            + ", weights = " + (groupWeights == null ? "equal" : groupWeights));
+                    return fair;
+                }
+                case "DRR":
+                default: {
+                    schedulerName = "DynamicRR";
+                    System.out.println("Scheduler = Dynamic RR (SR/AR)");
+                    return new DRoundRobinScheduler();
                 }
-
-                GLOBAL_SCHEDULER = chosen;
-                pr.setScheduler(GLOBAL_SCHEDULER);
-                schedulerChosen = true;
-
-            } catch (Exception e) {
-                // If input fails, default to dynamic RR
-                GLOBAL_SCHEDULER = new DRoundRobinScheduler();
-                pr.setScheduler(GLOBAL_SCHEDULER);
-                schedulerName = "DynamicRR";
-
-                System.out.println("Scheduler = Dynamic RR (default)");
-                schedulerChosen = true;
             }
 
-        } else {
-            // For future configurations, reuse the already chosen scheduler
-            pr.setScheduler(GLOBAL_SCHEDULER);
+        } catch (Exception e) {
+            // If input fails, default to dynamic RR
+            schedulerName = "DynamicRR";
+            System.out.println("Scheduler = Dynamic RR (default)");
+            return new DRoundRobinScheduler();
         }
-
-        currentTime = 0;
-
-        // Print formatted configuration header to output file
-        out.printf("%nCONFIG at %.2f: mem=%d devices=%d scheduler=%s%n%n",
-                (double) start, memorySize, numDevs, schedulerName);
-
-        // Allow immediate internal processing
-        pr.cpuTimeAdvance(0);
     }
+
     /**
      * parseCmd()
      * ----------
      * Parses numbers and values from input lines.
      * Example: A 10 J=1 M=5 S=4 R=8 P=1
      * Returns: [10, 1, 5, 4, 8, 1]
+     *
+     * The main loop reads through CommandReader instead; this String-based
+     * version is kept for callers holding single lines (and as the baseline
+     * in ParserBenchmark).
      */
     public static List<Long> parseCmd(String line) {
         List<Long> values = new ArrayList<>();
@@ -225,126 +446,4 @@ public class SimulationController {
         }
         return values;
     }
-
-    /**
-     * printSystemStatus()
-     * -------------------
-     * Prints a formatted snapshot of the system state:
-     * - memory and device usage
-     * - ready and hold queues
-     * - finished process table
-     */
-    private static void printSystemStatus(long t) {
-        double time = (double) t;
-
-        long totalMem   = sys.getMemorySize();
-        long usedMem    = sys.getMemInUse();
-        long availMem   = totalMem - usedMem;
-
-        int  totalDevs  = sys.getNoDevs();
-        int  usedDevs   = sys.getDevsInUse();
-        int  availDevs  = totalDevs - usedDevs;
-
-        out.println("-------------------------------------------------------");
-        out.println("System Status:                                         ");
-        out.println("-------------------------------------------------------");
-        out.printf("          Time: %.2f%n", time);
-        out.printf("  Total Memory: %d%n", totalMem);
-        out.printf(" Avail. Memory: %d%n", availMem);
-        out.printf(" Total Devices: %d%n", totalDevs);
-        out.printf("Avail. Devices: %d%n", availDevs);
-        out.println();
-
-        // Ready queue
-        out.println("Jobs in Ready List                                      ");
-        out.println("--------------------------------------------------------");
-        List<Process> ready = pr.getReadySnapshot();
-        if (ready.isEmpty()) {
-            out.println("  EMPTY");
-        } else {
-            for (Process p : ready) {
-                out.printf("Job ID %d , %.2f Cycles left to completion.%n",
-                        p.getPID(), (double) p.getBurstTime());
-            }
-        }
-        out.println();
-
-        // Submit queue
-        out.println("Jobs in Long Job List                                   ");
-        out.println("--------------------------------------------------------");
-        List<Process> longList = pr.getSubmitSnapshot();
-        if (longList.isEmpty()) {
-            out.println("  EMPTY");
-        } else {
-            for (Process p : longList) {
-                out.printf("Job ID %d , %.2f Cycles left to completion.%n",
-                        p.getPID(), (double) p.getBurstTime());
-            }
-        }
-        out.println();
-
-        // Hold List 1
-        out.println("Jobs in Hold List 1                                     ");
-        out.println("--------------------------------------------------------");
-        List<Process> hq1 = pr.getHQ1Snapshot();
-        if (hq1.isEmpty()) {
-            out.println("  EMPTY");
-        } else {
-            for (Process p : hq1) {
-                out.printf("Job ID %d , %.2f Cycles left to completion.%n",
-                        p.getPID(), (double) p.getBurstTime());
-            }
-        }
-        out.println();
-
-        // Hold List 2
-        out.println("Jobs in Hold List 2                                     ");
-        out.println("--------------------------------------------------------");
-        List<Process> hq2 = pr.getHQ2Snapshot();
-        if (hq2.isEmpty()) {
-            out.println("  EMPTY");
-        } else {
-            for (Process p : hq2) {
-                out.printf("Job ID %d , %.2f Cycles left to completion.%n",
-                        p.getPID(), (double) p.getBurstTime());
-            }
-        }
-        out.println();
-        out.println();
-
-        // Finished jobs table
-        out.println("Finished Jobs (detailed)                                ");
-        out.println("--------------------------------------------------------");
-        out.println("  Job    ArrivalTime     CompleteTime     TurnaroundTime    WaitingTime");
-        out.println("------------------------------------------------------------------------");
-
-        List<long[]> finished = pr.getFinishedJobsSnapshot(t);
-
-        if (finished.isEmpty()) {
-            out.println("  EMPTY");
-        } else {
-            finished.sort(Comparator.comparingLong(a -> a[0]));
-
-            for (long[] row : finished) {
-                long pid = row[0];
-                double at  = row[1];
-                double ct  = row[2];
-                double tat = row[3];
-                double wt  = row[4];
-
-                out.printf("  %-6d %-14.2f %-15.2f %-18.2f %-14.2f%n",
-                        pid, at, ct, tat, wt);
-            }
-
-            // Only print the total at the final display
-            if (t == 999999L) {
-                int total = pr.getTotalFinishedCount();
-                out.printf("Total Finished Jobs:             %d%n", total);
-            }
-        }
-
-        out.println();
-        out.println();
-    }
-
 }
@@ -0,0 +1,422 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * SimulationService
+ * -----------------
+ * Runs one Simulation as a long-lived local process fed by a stream of
+ * commands, e.g. as a shadow of a real scheduler. Started by
+ *     java SimulationController --serve=7070 --sched=DRR [other options]
+ *     java SimulationController --serve=unix:/tmp/sim.sock --sched=SRR --quantum=17
+ * TCP listens on the loopback interface unless a host is given (host:port);
+ * "unix:path" listens on a Unix domain socket instead.
+ *
+ * Protocol, one command per line (any number of connections):
+ *   C / A / D lines   as in the input file; no reply unless rejected ("ERR ...")
+ *   S | STATUS        one "STATUS key=value ..." line (see Simulation.appendStatus)
+ *   Q | QUIT          closes this connection
+ *   SHUTDOWN          applies everything received so far, finishes the run, stops
+ *
+ * Two threads. The I/O thread (run()) owns the non-blocking sockets: it
+ * parses complete lines straight from the read buffers into batches of
+ * up to BATCH records and hands each batch over whole. The simulation
+ * thread applies batches in order and, after each one, publishes a status
+ * line. STATUS is answered by the I/O thread from the last published line,
+ * so queries never wait for the simulation and always show the state
+ * between two batches, never a half-applied one.
+ *
+ * Batches come from a fixed pool (full/free queues, as in ReportWriter).
+ * When the simulation falls behind the pool runs dry and the I/O thread
+ * stops reading until a batch comes back, so senders are slowed down by
+ * TCP flow control instead of the service buffering without bound.
+ */
+public class SimulationService implements Closeable {
+
+    private static final int BATCH = 8192;          // records per hand-off
+    private static final int POOL = 8;              // batches in flight
+    private static final int LINE_MAX = 64 << 10;   // read buffer per connection = longest line
+    private static final int REPLY_MAX = 1 << 20;   // unread replies before a client is dropped
+
+    // Parsed records applied by the simulation thread in one go
+    private static final class Batch {
+        final char[] types = new char[BATCH];
+        final long[] fields = new long[BATCH * TraceBuffer.FIELDS];
+        int count = 0;
+        boolean last = false;   // SHUTDOWN: finish the run after this batch
+    }
+
+    // Per-connection buffers
+    private static final class Client {
+        final ByteBuffer in = ByteBuffer.allocate(LINE_MAX);
+        ByteBuffer out = ByteBuffer.allocate(256);
+        boolean eof = false;      // peer closed; close once its lines are in
+        boolean closing = false;  // QUIT: close once replies are written
+    }
+
+    private final Simulation sim;
+    private final Selector selector;
+    private final ServerSocketChannel server;
+    private final Path socketFile;   // unix socket, removed on close (null for TCP)
+
+    private final BlockingQueue<Batch> full = new ArrayBlockingQueue<>(POOL);
+    private final BlockingQueue<Batch> free = new ArrayBlockingQueue<>(POOL);
+
+    // I/O thread state
+    private Batch current;
+    private boolean readsPaused = false;
+    private boolean configured = false;   // a C command has been accepted
+    private boolean stopping = false;
+    private final long[] parsed = new long[16];
+    private final long[] parsedKeys = new long[16];
+    private final long[] laidOut = new long[TraceBuffer.FIELDS];  // the line laid out as in Trace
+
+    // published by the simulation thread after every batch
+    private volatile String status = "STATUS time=0 configured=false applied=0\n";
+    private volatile Throwable failure = null;
+
+    public SimulationService(Simulation sim, String address) throws IOException {
+        this.sim = sim;
+        for (int i = 0; i < POOL; i++) free.add(new Batch());
+
+        SocketAddress bind;
+        if (address.startsWith("unix:")) {
+            socketFile = Paths.get(address.substring("unix:".length()));
+            Files.deleteIfExists(socketFile);   // stale socket of an earlier run
+            server = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+            bind = UnixDomainSocketAddress.of(socketFile);
+        } else {
+            socketFile = null;
+            int colon = address.lastIndexOf(':');
+            int port = Integer.parseInt(address.substring(colon + 1));
+            bind = colon < 0
+                    ? new InetSocketAddress(InetAddress.getLoopbackAddress(), port)
+                    : new InetSocketAddress(address.substring(0, colon), port);
+            server = ServerSocketChannel.open();
+        }
+        server.bind(bind);
+        server.configureBlocking(false);
+
+        selector = Selector.open();
+        server.register(selector, SelectionKey.OP_ACCEPT);
+    }
+
+    // Where the service listens (e.g. the port chosen for port 0)
+    public String getAddress() throws IOException {
+        return server.getLocalAddress().toString();
+    }
+
+    /**
+     * Serves until SHUTDOWN (or an I/O error), then waits for the
+     * simulation thread to apply the last batch and finish the run.
+     */
+    public void run() throws IOException {
+        Thread worker = new Thread(this::simulate, "simulation");
+        worker.start();
+        current = free.poll();
+
+        try {
+            while (!stopping && worker.isAlive()) {
+                // stalled: poll briefly for a batch to come back
+                selector.select(current == null ? 1 : 100);
+
+                Iterator<SelectionKey> it = selector.selectedKeys().iterator();
+                while (it.hasNext()) {
+                    SelectionKey key = it.next();
+                    it.remove();
+                    if (!key.isValid()) continue;
+                    if (key.isAcceptable()) accept();
+                    else {
+                        if (key.isWritable()) flush(key);
+                        if (key.isValid() && key.isReadable()) read(key);
+                    }
+                }
+
+                if (current != null && current.count > 0) handOff();
+                if (current == null) current = free.poll();
+                if (readsPaused == (current == null)) continue;
+
+                readsPaused = (current == null);
+                if (!readsPaused) resumeReads();
+                else for (SelectionKey k : clients()) interest(k);
+            }
+        } finally {
+            if (!stopping) worker.interrupt();
+            try {
+                worker.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            for (SelectionKey k : clients()) flush(k);
+        }
+
+        if (failure != null) throw new IOException("simulation stopped: " + failure, failure);
+    }
+
+    @Override
+    public void close() throws IOException {
+        for (SelectionKey k : clients()) k.channel().close();
+        selector.close();
+        server.close();
+        if (socketFile != null) Files.deleteIfExists(socketFile);
+    }
+
+    // ===== simulation thread =====
+
+    private void simulate() {
+        StringBuilder sb = new StringBuilder(256);
+        long applied = 0;
+        try {
+            while (true) {
+                Batch b = full.take();
+                apply(b);
+                applied += b.count;
+                boolean last = b.last;
+                b.count = 0;
+                b.last = false;
+                free.put(b);
+
+                sb.setLength(0);
+                sim.appendStatus(sb.append("STATUS ")).append(" applied=").append(applied).append('\n');
+                status = sb.toString();
+                if (last) break;
+            }
+            sim.finish();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            failure = e;
+        }
+    }
+
+    private void apply(Batch b) {
+        for (int i = 0; i < b.count; i++) {
+            long[] f = b.fields;
+            int o = i * TraceBuffer.FIELDS;
+            switch (b.types[i]) {
+                case 'C':
+                    sim.configure(f[o], f[o + 1], (int) f[o + 2], (int) Math.max(1, f[o + 3]));
+                    break;
+                case 'A':
+                    sim.arrival(f[o], f[o + 1], f[o + 2], (int) f[o + 3], f[o + 4], (int) f[o + 5], f[o + 6],
+                            (int) f[o + 7]);
+                    break;
+                default:
+                    sim.display(f[o]);
+                    break;
+            }
+        }
+    }
+
+    // ===== I/O thread =====
+
+    private void accept() throws IOException {
+        SocketChannel ch = server.accept();
+        if (ch == null) return;
+        ch.configureBlocking(false);
+        ch.register(selector, readsPaused ? 0 : SelectionKey.OP_READ, new Client());
+    }
+
+    private void read(SelectionKey key) throws IOException {
+        Client c = (Client) key.attachment();
+        SocketChannel ch = (SocketChannel) key.channel();
+        int n;
+        try {
+            n = ch.read(c.in);
+        } catch (IOException e) {
+            key.channel().close();
+            return;
+        }
+        if (n < 0) {
+            c.eof = true;
+            // a last line without '\n' still counts
+            if (c.in.position() > 0 && c.in.hasRemaining()) c.in.put((byte) '\n');
+        }
+        drainLines(key);
+    }
+
+    // Every complete line in the client's buffer; stops early when no batch is free
+    private void drainLines(SelectionKey key) throws IOException {
+        Client c = (Client) key.attachment();
+        ByteBuffer in = c.in;
+        in.flip();
+
+        int start = 0;
+        boolean stalled = false;
+        for (int i = 0; i < in.limit(); i++) {
+            if (in.get(i) != '\n') continue;
+            if (!line(key, in, start, i)) {
+                stalled = true;
+                break;
+            }
+            start = i + 1;
+        }
+
+        in.position(start);
+        in.compact();
+        if (!stalled && !in.hasRemaining()) {
+            reply(key, "ERR line longer than " + LINE_MAX + " bytes\n");
+            c.closing = true;
+            in.clear();
+        }
+        if (c.eof && in.position() == 0) c.closing = true;
+        if (key.isValid()) interest(key);
+    }
+
+    /**
+     * Handles buf[from, end). Returns false if the line needs batch space
+     * and none is free; it stays in the buffer for a later pass.
+     */
+    private boolean line(SelectionKey key, ByteBuffer buf, int from, int end) throws IOException {
+        if (end > from && buf.get(end - 1) == '\r') end--;
+        while (from < end && CommandReader.isBlank(buf.get(from))) from++;
+        if (from == end) return true;
+
+        char type = (char) (buf.get(from) & 0xFF);
+        boolean record = (type == 'C' || type == 'A' || type == 'D')
+                && (from + 1 == end || CommandReader.isBlank(buf.get(from + 1)));
+
+        if (!record) {
+            byte[] word = new byte[end - from];
+            for (int k = 0; k < word.length; k++) word[k] = buf.get(from + k);
+            String cmd = new String(word, StandardCharsets.US_ASCII).trim().toUpperCase(Locale.ROOT);
+            switch (cmd) {
+                case "S":
+                case "STATUS":
+                    Throwable f = failure;
+                    reply(key, f == null ? status : "ERR simulation stopped: " + f + "\n");
+                    return true;
+                case "Q":
+                case "QUIT":
+                    ((Client) key.attachment()).closing = true;
+                    return true;
+                case "SHUTDOWN":
+                    if (!reserve()) return false;
+                    current.last = true;
+                    handOff();
+                    stopping = true;
+                    reply(key, "OK shutting down\n");
+                    return true;
+                default:
+                    reply(key, "ERR unknown command: " + cmd + "\n");
+                    return true;
+            }
+        }
+
+        try {
+            int n = CommandReader.parseFields(buf, from + 1, end, parsed, parsedKeys);
+            int needed = CommandReader.required(type);
+            if (n < needed) {
+                reply(key, "ERR " + type + " needs " + needed + " fields\n");
+                return true;
+            }
+            CommandReader.layout(type, parsed, parsedKeys, n, laidOut, 0, end);
+        } catch (CommandReader.FieldError e) {
+            reply(key, "ERR column " + (e.pos - from + 1) + ": " + e.getMessage() + "\n");
+            return true;
+        }
+        if (type != 'C' && !configured) {
+            reply(key, "ERR no C command yet\n");
+            return true;
+        }
+        if (!reserve()) return false;
+
+        if (type == 'C') configured = true;
+        int k = current.count++;
+        current.types[k] = type;
+        int o = k * TraceBuffer.FIELDS;
+        System.arraycopy(laidOut, 0, current.fields, o, TraceBuffer.FIELDS);
+        return true;
+    }
+
+    // Room for one more record in 'current'; false if the pool is dry
+    private boolean reserve() {
+        if (current != null && current.count == BATCH) handOff();
+        if (current == null) current = free.poll();
+        return current != null && !stopping;
+    }
+
+    // Never blocks: POOL batches exist and 'full' holds POOL
+    private void handOff() {
+        full.add(current);
+        current = free.poll();
+    }
+
+    // Reads were paused: consume lines already buffered, then listen again
+    private void resumeReads() throws IOException {
+        for (SelectionKey k : clients()) {
+            if (k.isValid() && ((Client) k.attachment()).in.position() > 0) drainLines(k);
+            if (k.isValid()) interest(k);
+        }
+    }
+
+    private void reply(SelectionKey key, String text) throws IOException {
+        Client c = (Client) key.attachment();
+        byte[] b = text.getBytes(StandardCharsets.US_ASCII);
+        if (c.out.remaining() < b.length) {
+            if (c.out.position() + b.length > REPLY_MAX) { // not reading its replies
+                key.channel().close();
+                return;
+            }
+            ByteBuffer bigger = ByteBuffer.allocate(Math.max(c.out.capacity() * 2, c.out.position() + b.length));
+            c.out.flip();
+            c.out = bigger.put(c.out);
+        }
+        c.out.put(b);
+        flush(key);
+    }
+
+    private void flush(SelectionKey key) throws IOException {
+        if (!key.isValid()) return;
+        Client c = (Client) key.attachment();
+        c.out.flip();
+        try {
+            ((SocketChannel) key.channel()).write(c.out);
+        } catch (IOException e) {
+            key.channel().close();
+            return;
+        } finally {
+            c.out.compact();
+        }
+        interest(key);
+    }
+
+    private void interest(SelectionKey key) throws IOException {
+        if (!key.isValid()) return;
+        Client c = (Client) key.attachment();
+        boolean pending = c.out.position() > 0;
+        if (c.closing && !pending) {
+            key.channel().close();
+            return;
+        }
+        int ops = (readsPaused || c.eof || c.closing) ? 0 : SelectionKey.OP_READ;
+        key.interestOps(ops | (pending ? SelectionKey.OP_WRITE : 0));
+    }
+
+    private List<SelectionKey> clients() {
+        List<SelectionKey> out = new ArrayList<>();
+        for (SelectionKey k : selector.keys()) {
+            if (k.isValid() && k.attachment() instanceof Client) out.add(k);
+        }
+        return out;
+    }
+}
@@ -0,0 +1,134 @@
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Map;
+
+/**
+ * SlabAllocator
+ * -------------
+ * Size-class allocator. Small requests are rounded up to a power-of-two
+ * class and served from slabs: fixed-size pages dedicated to one class.
+ * Requests too big for a slab class go straight to the page allocator.
+ *
+ * Pages (and large objects) come from a best-fit FreeListAllocator over
+ * the same arena; a slab that becomes empty gives its page back. A
+ * partly used slab holds its whole page, so unused slots count as used.
+ * Everything is O(1) except page allocation, which is O(log n).
+ */
+public class SlabAllocator implements MemoryAllocator {
+
+    private static final class Slab {
+        final long page;      // handle from the page allocator
+        final int cls;
+        final int[] freeSlots;
+        int freeCount;
+
+        Slab(long page, int cls, int slots) {
+            this.page = page;
+            this.cls = cls;
+            this.freeSlots = new int[slots];
+            for (int i = 0; i < slots; i++) freeSlots[i] = slots - 1 - i;
+            this.freeCount = slots;
+        }
+    }
+
+    private static final class Slot {
+        final Slab slab;      // null for a large object
+        final int index;
+        final long page;      // large object: its page-allocator handle
+
+        Slot(Slab slab, int index, long page) {
+            this.slab = slab;
+            this.index = index;
+            this.page = page;
+        }
+    }
+
+    private final long capacity;
+    private final long slabSize;
+    private final int classes;   // class c holds objects of size 2^c
+    private final FreeListAllocator pages;
+
+    private final LinkedHashSet<Slab>[] partial;  // slabs with free slots, per class
+    private final Map<Long, Slot> slots = new HashMap<>();
+    private long nextHandle = 0;
+    private long failedFits = 0;
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public SlabAllocator(long capacity) {
+        this.capacity = Math.max(0, capacity);
+        this.slabSize = Long.highestOneBit(Math.max(1, this.capacity / 16)); // >= 16 slabs
+        // at least two objects per slab
+        this.classes = slabSize >= 2 ? Long.numberOfTrailingZeros(slabSize) : 0;
+        this.pages = new FreeListAllocator(this.capacity, true, false);
+
+        this.partial = new LinkedHashSet[classes];
+        for (int c = 0; c < classes; c++) partial[c] = new LinkedHashSet<>();
+    }
+
+    @Override
+    public long allocate(long size) {
+        if (size <= 0) return -1;
+
+        int c = 64 - Long.numberOfLeadingZeros(size - 1); // ceil(log2(size))
+        Slot s = (c < classes) ? allocSmall(c) : allocLarge(size);
+
+        if (s == null) {
+            if (capacity - getUsed() >= size) failedFits++;
+            return -1;
+        }
+        long handle = nextHandle++;
+        slots.put(handle, s);
+        return handle;
+    }
+
+    private Slot allocSmall(int c) {
+        Iterator<Slab> it = partial[c].iterator();
+        Slab slab;
+        if (it.hasNext()) {
+            slab = it.next();
+        } else {
+            long page = pages.allocate(slabSize);
+            if (page < 0) return null;
+            slab = new Slab(page, c, (int) (slabSize >> c));
+            partial[c].add(slab);
+        }
+
+        int idx = slab.freeSlots[--slab.freeCount];
+        if (slab.freeCount == 0) partial[c].remove(slab);
+        return new Slot(slab, idx, -1);
+    }
+
+    private Slot allocLarge(long size) {
+        long page = pages.allocate(size);
+        return page < 0 ? null : new Slot(null, -1, page);
+    }
+
+    @Override
+    public void free(long handle) {
+        Slot s = slots.remove(handle);
+        if (s == null) return;
+
+        if (s.slab == null) {
+            pages.free(s.page);
+            return;
+        }
+
+        Slab slab = s.slab;
+        if (slab.freeCount == 0) partial[slab.cls].add(slab);
+        slab.freeSlots[slab.freeCount++] = s.index;
+
+        if (slab.freeCount == slab.freeSlots.length) { // empty: return the page
+            partial[slab.cls].remove(slab);
+            pages.free(slab.page);
+        }
+    }
+
+    @Override public String getName()        { return "slab"; }
+    @Override public long getCapacity()      { return capacity; }
+    @Override public long getUsed()          { return pages.getUsed(); }
+    @Override public long getLargestFree()   { return pages.getLargestFree(); }
+    @Override public long getMaxAllocation() { return capacity; }
+    @Override public long getFailedFits()    { return failedFits; }
+    @Override public long getCompactions()   { return 0; }
+}
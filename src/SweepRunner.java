@@ -0,0 +1,303 @@
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * SweepRunner
+ * -----------
+ * Runs one workload under many configurations in parallel and prints a
+ * comparison table (mean / p99 turnaround and waiting time per configuration).
+ *
+ * The input file is parsed once into a shared TraceBuffer (a BinaryTrace file
+ * is mapped instead); every configuration is an independent Simulation on a
+ * ForkJoinPool worker.
+ *
+ * Usage (also reachable as: java SimulationController --sweep ...):
+ *   java SweepRunner [--input=src/input.txt] [--mem=100,200] [--devs=1,2]
+ *                    [--cores=1,4,16] [--sched=FCFS,SRR,DRR,PRIO,MLFQ,SJF,SRTF,EDF,FAIR] [--quanta=5,17]
+ *                    [--admission=strict|bestfit] [--allocator=counter,firstfit,buddy,...]
+ *                    [--threads=N] [--out=file] [--fork-at=T [--prefix=SRR]] [--batch-window=W]
+ *                    [--deadline-admission=reject|hold] [--group-weights=ID:W,...]
+ * --mem / --devs / --cores override the values of every C command; when omitted the
+ * trace's own configuration is used.
+ * --fork-at=T replays the trace up to T once, under the --prefix scheduler
+ * (default DRR; SRR, FAIR and PRIO use the first quantum), takes a Checkpoint and starts
+ * every configuration from it. Only --sched / --quanta vary in that mode.
+ */
+public class SweepRunner {
+
+    // One point of the sweep grid; 0 for mem/devs/cores means "as in the trace"
+    private static final class Config {
+        final String sched;
+        final int quantum;
+        final long mem;
+        final int devs;
+        final int cores;
+        final String allocator;
+        final PrManager.AdmissionPolicy admission;
+        final long batchWindow;
+        final PrManager.DeadlineAdmission deadlineAdmission;
+        final String groupWeights;
+
+        Config(String sched, int quantum, long mem, int devs, int cores, String allocator,
+               PrManager.AdmissionPolicy admission, long batchWindow,
+               PrManager.DeadlineAdmission deadlineAdmission, String groupWeights) {
+            this.sched = sched;
+            this.quantum = quantum;
+            this.mem = mem;
+            this.devs = devs;
+            this.cores = cores;
+            this.allocator = allocator;
+            this.admission = admission;
+            this.batchWindow = batchWindow;
+            this.deadlineAdmission = deadlineAdmission;
+            this.groupWeights = groupWeights;
+        }
+
+        boolean hasQuantum() {
+            return sched.equals("SRR") || sched.equals("FAIR") || sched.equals("PRIO");
+        }
+
+        SchedulingPolicy newScheduler() {
+            switch (sched) {
+                case "FCFS": return new FCFScheduler();
+                case "SRR":  return new SRoundRobinScheduler(quantum);
+                case "PRIO": return new PriorityScheduler(quantum, 10);
+                case "MLFQ": return new MLFQScheduler();
+                case "SJF":  return new SJFScheduler(false);
+                case "SRTF": return new SJFScheduler(true);
+                case "EDF":  return new EDFScheduler(true);
+                case "FAIR": return new FairShareScheduler(quantum, groupWeights);
+                default:     return new DRoundRobinScheduler();
+            }
+        }
+    }
+
+    private static final class Stats {
+        long jobs;
+        double meanTat, p99Tat, meanWt, p99Wt;
+        long deadlineJobs, missRatio, rejected; // missRatio in hundredths of a percent
+    }
+
+    public static void main(String[] args) {
+        String input = "src/input.txt";
+        String outFile = null;
+        long[] mems = {0};
+        long[] devs = {0};
+        long[] cores = {0};
+        String[] scheds = {"FCFS", "SRR", "DRR"};
+        long[] quanta = {17};
+        String[] allocators = {"counter"};
+        int threads = Runtime.getRuntime().availableProcessors();
+        PrManager.AdmissionPolicy admission = PrManager.AdmissionPolicy.STRICT_HEAD;
+        long forkAt = -1;
+        String prefixSched = "DRR";
+        long batchWindow = 0;
+        PrManager.DeadlineAdmission deadlineAdmission = PrManager.DeadlineAdmission.OFF;
+        String groupWeights = null;
+
+        for (String a : args) {
+            String v = a.substring(a.indexOf('=') + 1);
+            if (a.startsWith("--input="))        input = v;
+            else if (a.startsWith("--out="))     outFile = v;
+            else if (a.startsWith("--mem="))     mems = parseList(v);
+            else if (a.startsWith("--devs="))    devs = parseList(v);
+            else if (a.startsWith("--cores="))   cores = parseList(v);
+            else if (a.startsWith("--quanta="))  quanta = parseList(v);
+            else if (a.startsWith("--threads=")) threads = Integer.parseInt(v);
+            else if (a.startsWith("--sched="))   scheds = v.toUpperCase(Locale.ROOT).split(",");
+            else if (a.startsWith("--allocator=")) allocators = v.split(",");
+            else if (a.equalsIgnoreCase("--admission=bestfit")) admission = PrManager.AdmissionPolicy.BEST_FIT;
+            else if (a.startsWith("--fork-at="))  forkAt = Long.parseLong(v);
+            else if (a.startsWith("--prefix="))   prefixSched = v.toUpperCase(Locale.ROOT);
+            else if (a.startsWith("--batch-window=")) batchWindow = Long.parseLong(v);
+            else if (a.equalsIgnoreCase("--deadline-admission=reject")) deadlineAdmission = PrManager.DeadlineAdmission.REJECT;
+            else if (a.equalsIgnoreCase("--deadline-admission=hold"))   deadlineAdmission = PrManager.DeadlineAdmission.HOLD;
+            else if (a.startsWith("--group-weights=")) groupWeights = v;
+        }
+        try {
+            FairShareScheduler.parseWeights(groupWeights);
+        } catch (RuntimeException e) {
+            System.out.println("Bad --group-weights: " + e.getMessage());
+            return;
+        }
+
+        Trace trace;
+        try {
+            Path in = Paths.get(input);
+            trace = BinaryTrace.isBinary(in) ? BinaryTrace.open(in) : TraceBuffer.load(in);
+        } catch (IOException e) {
+            System.out.println("File error: " + e.getMessage());
+            return;
+        }
+
+        List<Config> grid = new ArrayList<>();
+        for (String s : scheds) {
+            long[] qs = (s.equals("SRR") || s.equals("FAIR") || s.equals("PRIO")) ? quanta : new long[]{0};
+            for (long q : qs)
+                for (long m : mems)
+                    for (long d : devs)
+                        for (long k : cores)
+                            for (String al : allocators)
+                                grid.add(new Config(s, (int) q, m, (int) d, (int) k, al, admission, batchWindow,
+                                        deadlineAdmission, groupWeights));
+        }
+
+        Prefix prefix = null;
+        if (forkAt >= 0) {
+            if (mems.length > 1 || mems[0] != 0 || devs.length > 1 || devs[0] != 0
+                    || cores.length > 1 || cores[0] != 0
+                    || allocators.length > 1 || !allocators[0].equalsIgnoreCase("counter")) {
+                System.out.println("--fork-at keeps the trace's mem/devs/cores and the counter allocator");
+                return;
+            }
+            try {
+                prefix = runPrefix(trace, new Config(prefixSched, (int) quanta[0], 0, 0, 0, "counter", admission, batchWindow,
+                        deadlineAdmission, groupWeights), forkAt);
+            } catch (IOException | IllegalStateException e) {
+                System.out.println("Checkpoint failed: " + e.getMessage());
+                return;
+            }
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(Math.max(1, threads));
+        List<Future<Stats>> results = new ArrayList<>();
+        final Prefix from = prefix;
+        for (Config c : grid) {
+            results.add(pool.submit(() -> run(trace, c, from)));
+        }
+
+        Stats[] stats = new Stats[grid.size()];
+        boolean deadlines = false;
+        try {
+            for (int i = 0; i < grid.size(); i++) {
+                stats[i] = results.get(i).get();
+                deadlines |= stats[i].deadlineJobs > 0 || stats[i].rejected > 0;
+            }
+        } catch (Exception e) {
+            System.out.println("Sweep failed: " + e);
+            return;
+        } finally {
+            pool.shutdown();
+        }
+
+        // miss% / rejected columns only for traces with deadlines
+        StringBuilder table = new StringBuilder();
+        table.append(String.format(Locale.ROOT, "%-6s %7s %8s %6s %6s %-16s %9s %12s %12s %12s %12s",
+                "sched", "quantum", "mem", "devs", "cores", "allocator", "jobs", "meanTAT", "p99TAT", "meanWT", "p99WT"));
+        if (deadlines) table.append(String.format(Locale.ROOT, " %8s %9s", "miss%", "rejected"));
+        table.append(String.format("%n"));
+        for (int i = 0; i < grid.size(); i++) {
+            Config c = grid.get(i);
+            Stats s = stats[i];
+            table.append(String.format(Locale.ROOT, "%-6s %7s %8s %6s %6s %-16s %9d %12.2f %12.2f %12.2f %12.2f",
+                    c.sched,
+                    c.hasQuantum() ? String.valueOf(c.quantum) : "-",
+                    c.mem == 0 ? "trace" : String.valueOf(c.mem),
+                    c.devs == 0 ? "trace" : String.valueOf(c.devs),
+                    c.cores == 0 ? "trace" : String.valueOf(c.cores),
+                    c.allocator,
+                    s.jobs, s.meanTat, s.p99Tat, s.meanWt, s.p99Wt));
+            if (deadlines) table.append(String.format(Locale.ROOT, " %8.2f %9d", s.missRatio / 100.0, s.rejected));
+            table.append(String.format("%n"));
+        }
+
+        System.out.print(table);
+        if (outFile != null) {
+            try (PrintWriter w = new PrintWriter(outFile)) {
+                w.print(table);
+            } catch (IOException e) {
+                System.out.println("Cannot create output file.");
+            }
+        }
+    }
+
+    // Warm prefix shared by every configuration in --fork-at mode
+    private static final class Prefix {
+        byte[] snapshot;
+        JobMetrics closedSections = new JobMetrics(); // sections that ended before the fork
+    }
+
+    private static Prefix runPrefix(Trace trace, Config c, long forkAt) throws IOException {
+        Prefix p = new Prefix();
+        Simulation sim = newSimulation(c, p.closedSections);
+
+        int i = 0;
+        while (i < trace.size() && trace.field(i, 0) <= forkAt) {
+            replay(sim, trace, c, i++);
+        }
+        p.snapshot = Checkpoint.capture(sim, i);
+        return p;
+    }
+
+    // Replays the whole trace (or its rest after 'prefix') under one configuration
+    private static Stats run(Trace trace, Config c, Prefix prefix) throws IOException {
+        // histograms only: memory per configuration does not grow with the trace
+        JobMetrics all = new JobMetrics();
+        Simulation sim = newSimulation(c, all);
+
+        int from = 0;
+        if (prefix != null) {
+            all.add(prefix.closedSections);
+            from = (int) Checkpoint.restore(sim, prefix.snapshot);
+        }
+        for (int i = from; i < trace.size(); i++) replay(sim, trace, c, i);
+        sim.finish();
+
+        Stats s = new Stats();
+        s.jobs = all.getCompleted();
+        s.meanTat = all.getTurnaround().getMean();
+        s.meanWt = all.getWaiting().getMean();
+        s.p99Tat = all.getTurnaround().getPercentile(99);   // within 0.8% (LogHistogram)
+        s.p99Wt = all.getWaiting().getPercentile(99);
+        s.deadlineJobs = all.getDeadlineJobs();
+        s.missRatio = all.getMissRatioHundredths();
+        s.rejected = all.getRejected();
+        return s;
+    }
+
+    private static Simulation newSimulation(Config c, JobMetrics sink) {
+        Simulation sim = new Simulation(c.newScheduler(), c.sched, c.admission, null);
+        sim.setAllocator(c.allocator);
+        sim.setBatchWindow(c.batchWindow);
+        sim.setDeadlineAdmission(c.deadlineAdmission);
+        sim.setMetrics(false, false);
+        sim.setSectionListener(pr -> sink.add(pr.getMetrics()));
+        return sim;
+    }
+
+    // Applies trace record i
+    private static void replay(Simulation sim, Trace trace, Config c, int i) {
+        switch (trace.type(i)) {
+            case 'C':
+                sim.configure(trace.field(i, 0),
+                        c.mem != 0 ? c.mem : trace.field(i, 1),
+                        c.devs != 0 ? c.devs : (int) trace.field(i, 2),
+                        c.cores != 0 ? c.cores : (int) Math.max(1, trace.field(i, 3)));
+                break;
+            case 'A':
+                sim.arrival(trace.field(i, 0), trace.field(i, 1), trace.field(i, 2),
+                        (int) trace.field(i, 3), trace.field(i, 4), (int) trace.field(i, 5),
+                        trace.field(i, 6), (int) trace.field(i, 7));
+                break;
+            case 'D':
+                sim.display(trace.field(i, 0));
+                break;
+            default:
+                break;
+        }
+    }
+
+    private static long[] parseList(String csv) {
+        String[] p = csv.split(",");
+        long[] out = new long[p.length];
+        for (int i = 0; i < p.length; i++) out[i] = Long.parseLong(p[i].trim());
+        return out;
+    }
+}
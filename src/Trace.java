@@ -0,0 +1,22 @@
+/**
+ * Trace
+ * -----
+ * Random-access view of a parsed workload, shared read-only by replays.
+ *
+ * Record i: type(i) is 'C', 'A' or 'D', and its fields are
+ * field(i, 0 .. TraceBuffer.FIELDS-1) in input order (unused slots are 0):
+ *   C: start, mem, devs, cores
+ *   A: time, pid, mem, devs, burst, priority, deadline (0 = none), group (0 = default)
+ *   D: time
+ *
+ *   TraceBuffer -> text input parsed into arrays
+ *   BinaryTrace -> binary trace file, memory-mapped
+ */
+public interface Trace {
+
+    int size();
+
+    char type(int i);
+
+    long field(int i, int j);
+}
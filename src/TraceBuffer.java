@@ -0,0 +1,57 @@
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * TraceBuffer
+ * -----------
+ * An input file parsed once into flat primitive arrays so it can be
+ * replayed many times, from many threads, without touching the file again.
+ * Immutable after load(); safe to share between concurrent simulations.
+ * Record layout: see Trace.
+ */
+public final class TraceBuffer implements Trace {
+
+    public static final int FIELDS = 8;
+
+    private final char[] types;
+    private final long[] fields;   // FIELDS values per record
+    private final int count;
+
+    private TraceBuffer(char[] types, long[] fields, int count) {
+        this.types = types;
+        this.fields = fields;
+        this.count = count;
+    }
+
+    public static TraceBuffer load(Path file) throws IOException {
+        char[] types = new char[1024];
+        long[] fields = new long[1024 * FIELDS];
+        int n = 0;
+
+        try (CommandReader in = new CommandReader(file)) {
+            while (in.next()) {
+                char t = in.type();
+                if (t != 'C' && t != 'A' && t != 'D') continue;
+
+                if (n == types.length) {
+                    types = Arrays.copyOf(types, n * 2);
+                    fields = Arrays.copyOf(fields, n * 2 * FIELDS);
+                }
+                types[n] = t;
+                in.record(fields, n * FIELDS);
+                n++;
+            }
+        }
+        return new TraceBuffer(types, fields, n);
+    }
+
+    @Override
+    public int size() { return count; }
+
+    @Override
+    public char type(int i) { return types[i]; }
+
+    @Override
+    public long field(int i, int j) { return fields[i * FIELDS + j]; }
+}
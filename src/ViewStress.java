@@ -0,0 +1,180 @@
+import java.util.ConcurrentModificationException;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * ViewStress
+ * ----------
+ * Cross-thread check for PrManager.View.
+ *
+ * The main thread drives a PrManager through a seeded stream of arrivals
+ * (postArrival + runUntil, as Simulation does) while reader threads take
+ * views as fast as they can. A reader that gets a stable view reads every
+ * count, walks all four queues and checks the view against itself:
+ *   - each walk visits exactly as many jobs as the matching count says,
+ *   - no job appears twice across the queues,
+ *   - READY's memory and devices fit in what the kernel reports in use,
+ *     which fits in the configured totals, and running <= cores.
+ * A read that ends with isValid() is a validated read and must pass all of
+ * the checks; one that throws ConcurrentModificationException or ends
+ * invalid is discarded, as a real caller would retry it. Any other
+ * exception, or a validated read that fails a check, is a failure.
+ *
+ * Usage: java ViewStress [jobs] [readers]
+ * Runs strict-head admission with Dynamic RR and best-fit with Static RR.
+ */
+public class ViewStress {
+
+    private static final long MEM   = 1_000;
+    private static final int  DEVS  = 8;
+    private static final int  CORES = 2;
+
+    public static void main(String[] args) throws InterruptedException {
+        int jobs = args.length > 0 ? Integer.parseInt(args[0]) : 2_000_000;
+        int readers = args.length > 1 ? Integer.parseInt(args[1])
+                : Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+
+        boolean ok = run("strict-head/DRR", new DRoundRobinScheduler(),
+                PrManager.AdmissionPolicy.STRICT_HEAD, jobs, readers);
+        ok &= run("best-fit/SRR    ", new SRoundRobinScheduler(17),
+                PrManager.AdmissionPolicy.BEST_FIT, jobs, readers);
+
+        System.out.println(ok ? "OK: no inconsistent read" : "FAILED");
+        if (!ok) System.exit(1);
+    }
+
+    private static boolean run(String name, SchedulingPolicy policy, PrManager.AdmissionPolicy admission,
+                               int jobs, int readers) throws InterruptedException {
+        PrManager pr = new PrManager(0, new OtherKerServices(MEM, DEVS), CORES);
+        pr.setAdmissionPolicy(admission);
+        pr.setScheduler(policy);
+
+        AtomicBoolean done = new AtomicBoolean(false);
+        AtomicLong validated = new AtomicLong(), discarded = new AtomicLong(), failed = new AtomicLong();
+        AtomicLong maxSeen = new AtomicLong();
+
+        Thread[] threads = new Thread[readers];
+        for (int r = 0; r < readers; r++) {
+            threads[r] = new Thread(() -> {
+                Reader rd = new Reader(jobs);
+                while (!done.get()) {
+                    PrManager.View v = pr.view();
+                    if (!v.isStable()) continue;
+                    String problem;
+                    try {
+                        problem = rd.read(v);
+                    } catch (ConcurrentModificationException e) {
+                        discarded.incrementAndGet();
+                        continue;
+                    } catch (RuntimeException e) {
+                        problem = "read threw " + e;
+                    }
+                    if (!v.isValid()) {
+                        discarded.incrementAndGet();
+                        continue;
+                    }
+                    if (problem != null) {
+                        if (failed.getAndIncrement() == 0) {
+                            System.out.println("  generation " + v.getGeneration() + ": " + problem);
+                        }
+                    } else {
+                        validated.incrementAndGet();
+                        maxSeen.accumulateAndGet(rd.seen, Math::max);
+                    }
+                }
+            });
+            threads[r].start();
+        }
+
+        Random rnd = new Random(42);
+        long t = 0;
+        long t0 = System.nanoTime();
+        for (int i = 0; i < jobs; i++) {
+            t += rnd.nextInt(20);   // ~80% CPU load, so queues stay short but busy
+            pr.postArrival(i, t, 1 + rnd.nextInt(30), 1 + rnd.nextInt(2),
+                    1 + rnd.nextInt(300), rnd.nextInt(4));
+            pr.runUntil(t);
+        }
+        pr.runUntil(Long.MAX_VALUE);
+        long t1 = System.nanoTime();
+        done.set(true);
+        for (Thread th : threads) th.join();
+
+        boolean finished = pr.getTotalFinishedCount() == jobs;
+        System.out.printf("%s jobs=%d readers=%d  %.1f s  validated=%d discarded=%d failed=%d  max jobs in one view=%d%s%n",
+                name, jobs, readers, (t1 - t0) / 1e9, validated.get(), discarded.get(), failed.get(),
+                maxSeen.get(), finished ? "" : "  UNFINISHED " + pr.getTotalFinishedCount());
+        return failed.get() == 0 && finished && validated.get() > 0;
+    }
+
+    // one reader's pass over a view; returns the first broken check, or null
+    private static final class Reader {
+        private final int[] mark;   // pid -> stamp of the pass that last saw it
+        private int stamp = 0;
+        private long readyMem, readyDevs;
+        private int visited;
+        private String dup;
+        long seen;
+
+        Reader(int jobs) { mark = new int[jobs]; }
+
+        String read(PrManager.View v) {
+            stamp++;
+            seen = 0;
+            dup = null;
+            int running = v.getRunningCount();
+            long memInUse = v.getMemInUse();
+            int devsInUse = v.getDevsInUse();
+
+            readyMem = 0;
+            readyDevs = 0;
+            visited = 0;
+            v.forEachReady(p -> {
+                see(p);
+                readyMem += p.getMemoryReq();
+                readyDevs += p.getDevReq();
+            });
+            if (visited != v.getReadyCount()) return "READY walk saw " + visited + ", count " + v.getReadyCount();
+            if (walkSubmit(v) != v.getSubmitCount()) return "SUBMIT walk saw " + visited + ", count " + v.getSubmitCount();
+            if (walkHQ1(v) != v.getHQ1Count()) return "HQ1 walk saw " + visited + ", count " + v.getHQ1Count();
+            if (walkHQ2(v) != v.getHQ2Count()) return "HQ2 walk saw " + visited + ", count " + v.getHQ2Count();
+            if (dup != null) return dup;
+
+            if (running > v.getCoreCount()) return running + " running on " + v.getCoreCount() + " cores";
+            if (memInUse > v.getMemorySize() || devsInUse > v.getNoDevs()) {
+                return "in use " + memInUse + "/" + devsInUse + " beyond totals";
+            }
+            if (readyMem > memInUse || readyDevs > devsInUse) {
+                return "READY holds " + readyMem + "/" + readyDevs + ", kernel in use " + memInUse + "/" + devsInUse;
+            }
+            return null;
+        }
+
+        private int walkSubmit(PrManager.View v) {
+            visited = 0;
+            v.forEachSubmit(this::see);
+            return visited;
+        }
+
+        private int walkHQ1(PrManager.View v) {
+            visited = 0;
+            v.forEachHQ1(this::see);
+            return visited;
+        }
+
+        private int walkHQ2(PrManager.View v) {
+            visited = 0;
+            v.forEachHQ2(this::see);
+            return visited;
+        }
+
+        private void see(Process p) {
+            visited++;
+            seen++;
+            int pid = (int) p.getPID();
+            if (mark[pid] == stamp && dup == null) dup = "job " + pid + " seen twice";
+            mark[pid] = stamp;
+        }
+    }
+}
@@ -0,0 +1,402 @@
+import java.io.BufferedWriter;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Paths;
+import java.util.Locale;
+import java.util.SplittableRandom;
+
+/**
+ * WorkloadGenerator
+ * -----------------
+ * Seeded synthetic workloads in the C / A / D grammar, for scale tests and
+ * capacity studies. Jobs are produced one at a time (next()), so any
+ * number of them takes constant memory; they can be written as text, as a
+ * BinaryTrace, or fed straight into a Simulation without touching disk.
+ * The same seed and options always give the same workload.
+ *
+ * Arrival processes (mean rates are jobs per time unit):
+ *   poisson:RATE                    exponential inter-arrival times
+ *   mmpp:LOW,HIGH,STAY              bursty 2-state MMPP; mean STAY time units per state
+ *   diurnal:RATE,PERIOD,AMP         Poisson with rate RATE*(1 + AMP*sin(2 pi t / PERIOD))
+ *
+ * Size distributions (burst and memory; results are rounded, at least 1):
+ *   const:V | exp:MEAN | uniform:LO,HI | pareto:ALPHA,XMIN | lognormal:MU,SIGMA
+ *
+ * Usage:
+ *   java WorkloadGenerator [--jobs=1000000] [--seed=1] [--arrival=poisson:0.2]
+ *                          [--burst=pareto:1.5,2] [--memory=lognormal:3,1]
+ *                          [--devices=0:0.6,1:0.3,2:0.1] [--p1=0.3]
+ *                          [--mem=1000] [--devs=8] [--cores=1]
+ *                          [--display-every=0] [--out=workload.txt] [--binary]
+ *                          [--deadlines=0] [--slack=uniform:1.5,4] [--groups=1:0.5,2:0.5]
+ * Memory requests are capped at --mem and device requests at --devs, so
+ * every job can eventually run. --binary writes a BinaryTrace instead of text.
+ * --deadlines=SHARE gives that fraction of the jobs a deadline (DL=) of
+ * arrival + ceil(burst * slack), with slack drawn from --slack; at 0 (the
+ * default) no extra random numbers are drawn, so older workloads are unchanged.
+ * --groups=ID:P,... puts each job in a fair-share group (G=) drawn from the
+ * mix; without it every job stays in group 0 and nothing extra is drawn.
+ */
+public class WorkloadGenerator {
+
+    // ===== distributions =====
+
+    /** A size distribution; sample() >= 1 after rounding. */
+    public interface Distribution {
+        double sample(SplittableRandom rnd);
+
+        static Distribution parse(String spec) {
+            String[] kv = spec.trim().toLowerCase(Locale.ROOT).split(":", 2);
+            double[] a = params(kv.length > 1 ? kv[1] : "");
+            switch (kv[0]) {
+                case "const":
+                    return r -> a[0];
+                case "exp":
+                    return r -> -a[0] * Math.log(1.0 - r.nextDouble());
+                case "uniform":
+                    return r -> a[0] + r.nextDouble() * (a[1] - a[0]);
+                case "pareto":   // alpha, xmin
+                    return r -> a[1] / Math.pow(1.0 - r.nextDouble(), 1.0 / a[0]);
+                case "lognormal": // mu, sigma of the underlying normal
+                    return r -> Math.exp(a[0] + a[1] * gaussian(r));
+                default:
+                    throw new IllegalArgumentException("unknown distribution: " + spec);
+            }
+        }
+    }
+
+    // ===== arrival processes =====
+
+    /** Produces successive arrival times (non-decreasing). */
+    public interface ArrivalProcess {
+        double next(double now, SplittableRandom rnd);
+
+        static ArrivalProcess parse(String spec) {
+            String[] kv = spec.trim().toLowerCase(Locale.ROOT).split(":", 2);
+            double[] a = params(kv.length > 1 ? kv[1] : "");
+            switch (kv[0]) {
+                case "poisson":
+                    return (now, r) -> now + exp(r, a[0]);
+                case "mmpp":
+                    return new Mmpp(a[0], a[1], a[2]);
+                case "diurnal":
+                    return (now, r) -> {
+                        // thinning against the peak rate
+                        double peak = a[0] * (1 + Math.abs(a[2]));
+                        double t = now;
+                        while (true) {
+                            t += exp(r, peak);
+                            double rate = a[0] * (1 + a[2] * Math.sin(2 * Math.PI * t / a[1]));
+                            if (r.nextDouble() * peak <= rate) return t;
+                        }
+                    };
+                default:
+                    throw new IllegalArgumentException("unknown arrival process: " + spec);
+            }
+        }
+    }
+
+    // Two-state Markov-modulated Poisson process (quiet / burst)
+    private static final class Mmpp implements ArrivalProcess {
+        private final double[] rate;
+        private final double switchRate;
+        private int state = 0;
+        private double switchAt = Double.NaN;
+
+        Mmpp(double low, double high, double meanStay) {
+            this.rate = new double[]{low, high};
+            this.switchRate = 1.0 / Math.max(1e-9, meanStay);
+        }
+
+        @Override
+        public double next(double now, SplittableRandom r) {
+            if (Double.isNaN(switchAt)) switchAt = now + exp(r, switchRate);
+            double t = now;
+            while (true) {
+                double candidate = t + exp(r, rate[state]);
+                if (candidate < switchAt) return candidate;
+                // state changes first; memoryless, so just restart from there
+                t = switchAt;
+                state ^= 1;
+                switchAt = t + exp(r, switchRate);
+            }
+        }
+    }
+
+    // ===== generator state =====
+
+    private final SplittableRandom rnd;
+    private final ArrivalProcess arrivals;
+    private final Distribution burstDist, memDist;
+    private final int[] devValues;
+    private final double[] devCumulative;
+    private final double p1;
+    private final long maxMem;
+    private final int maxDevs;
+    private final long jobs;
+
+    private double clock = 0;
+    private long produced = 0;
+
+    // current job (valid after next() returned true)
+    private long at, pid, mem, burst, deadline;
+    private int devs, priority, group;
+    private long burstTotal = 0;
+
+    // deadlines (off unless setDeadlines)
+    private double deadlineShare = 0;
+    private Distribution slackDist;
+
+    // groups (all 0 unless setGroups)
+    private int[] groupValues;
+    private double[] groupCumulative;
+
+    public WorkloadGenerator(long seed, long jobs, String arrival, String burst, String memory,
+                             String deviceMix, double p1, long maxMem, int maxDevs) {
+        this.rnd = new SplittableRandom(seed);
+        this.jobs = jobs;
+        this.arrivals = ArrivalProcess.parse(arrival);
+        this.burstDist = Distribution.parse(burst);
+        this.memDist = Distribution.parse(memory);
+        this.p1 = p1;
+        this.maxMem = Math.max(1, maxMem);
+        this.maxDevs = Math.max(0, maxDevs);
+
+        String[] parts = deviceMix.split(",");
+        devValues = new int[parts.length];
+        devCumulative = new double[parts.length];
+        double sum = 0;
+        for (int i = 0; i < parts.length; i++) {
+            String[] vw = parts[i].split(":");
+            devValues[i] = Integer.parseInt(vw[0].trim());
+            sum += vw.length > 1 ? Double.parseDouble(vw[1]) : 1.0;
+            devCumulative[i] = sum;
+        }
+        for (int i = 0; i < parts.length; i++) devCumulative[i] /= sum;
+    }
+
+    /** Gives a 'share' of the jobs a deadline of arrival + ceil(burst * slack). */
+    public void setDeadlines(double share, String slack) {
+        this.deadlineShare = share;
+        this.slackDist = Distribution.parse(slack);
+    }
+
+    /** Draws each job's group from 'mix' ("ID:P,..."); null or empty = group 0. */
+    public void setGroups(String mix) {
+        if (mix == null || mix.isBlank()) {
+            groupValues = null;
+            return;
+        }
+        String[] parts = mix.split(",");
+        groupValues = new int[parts.length];
+        groupCumulative = new double[parts.length];
+        double sum = 0;
+        for (int i = 0; i < parts.length; i++) {
+            String[] vw = parts[i].split(":");
+            groupValues[i] = Math.min(Process.MAX_GROUP, Math.max(0, Integer.parseInt(vw[0].trim())));
+            sum += vw.length > 1 ? Double.parseDouble(vw[1]) : 1.0;
+            groupCumulative[i] = sum;
+        }
+        for (int i = 0; i < parts.length; i++) groupCumulative[i] /= sum;
+    }
+
+    /** Advances to the next job; false once 'jobs' have been produced. */
+    public boolean next() {
+        if (produced >= jobs) return false;
+        produced++;
+
+        clock = arrivals.next(clock, rnd);
+        at = (long) clock;
+        pid = produced;
+        burst = Math.max(1, Math.round(burstDist.sample(rnd)));
+        mem = Math.min(maxMem, Math.max(1, Math.round(memDist.sample(rnd))));
+        devs = Math.min(maxDevs, pickDevices());
+        priority = rnd.nextDouble() < p1 ? 1 : 2;
+        deadline = 0;
+        if (deadlineShare > 0 && rnd.nextDouble() < deadlineShare) {
+            deadline = at + (long) Math.ceil(burst * Math.max(1.0, slackDist.sample(rnd)));
+        }
+        group = groupValues != null ? pick(groupValues, groupCumulative) : 0;
+        burstTotal += burst;
+        return true;
+    }
+
+    public long at()       { return at; }
+    public long pid()      { return pid; }
+    public long mem()      { return mem; }
+    public int devs()      { return devs; }
+    public long burst()    { return burst; }
+    public int priority()  { return priority; }
+    public long deadline() { return deadline; } // 0 = none
+    public int group()     { return group; }
+
+    // Sum of bursts so far: arrival + this bounds when everything has finished
+    public long getBurstTotal() { return burstTotal; }
+
+    private int pickDevices() {
+        return pick(devValues, devCumulative);
+    }
+
+    private int pick(int[] values, double[] cumulative) {
+        double u = rnd.nextDouble();
+        for (int i = 0; i < cumulative.length; i++) {
+            if (u < cumulative[i]) return values[i];
+        }
+        return values[values.length - 1];
+    }
+
+    // ===== sinks =====
+
+    /**
+     * Feeds the whole workload into 'sim' (one C section) without writing
+     * it anywhere: C, the arrivals with a D every 'displayEvery' time
+     * units (0 = none), then a final D once every job is done.
+     */
+    public void feed(Simulation sim, long memSize, int devCount, int cores, long displayEvery) {
+        sim.configure(1, memSize, devCount, cores);
+        long nextDisplay = displayEvery > 0 ? displayEvery : Long.MAX_VALUE;
+        long last = 0;
+        while (next()) {
+            while (at > nextDisplay) {
+                sim.display(nextDisplay);
+                nextDisplay += displayEvery;
+            }
+            sim.arrival(at, pid, mem, devs, burst, priority, deadline, group);
+            last = at;
+        }
+        sim.display(finalDisplay(last));
+    }
+
+    // Text or binary file in the input grammar
+    public long write(String file, boolean binary, long memSize, int devCount, int cores,
+                      long displayEvery) throws IOException {
+        long[] f = new long[TraceBuffer.FIELDS];
+        long nextDisplay = displayEvery > 0 ? displayEvery : Long.MAX_VALUE;
+        long last = 0, lines = 0;
+
+        if (binary) {
+            try (BinaryTrace.Writer out = new BinaryTrace.Writer(Paths.get(file))) {
+                // cores 0 = not given, as the converter writes a C without N=
+                out.add('C', fields(f, 1, memSize, devCount, cores > 1 ? cores : 0, 0, 0, 0, 0));
+                while (next()) {
+                    while (at > nextDisplay) {
+                        out.add('D', fields(f, nextDisplay, 0, 0, 0, 0, 0, 0, 0));
+                        nextDisplay += displayEvery;
+                    }
+                    out.add('A', fields(f, at, pid, mem, devs, burst, priority, deadline, group));
+                    last = at;
+                }
+                out.add('D', fields(f, finalDisplay(last), 0, 0, 0, 0, 0, 0, 0));
+                lines = out.getCount();
+            }
+            return lines;
+        }
+
+        try (Writer out = new BufferedWriter(new FileWriter(file), 1 << 16)) {
+            StringBuilder sb = new StringBuilder(1 << 16);
+            sb.append("C 1 M=").append(memSize).append(" S=").append(devCount);
+            if (cores > 1) sb.append(" N=").append(cores);
+            sb.append('\n');
+            lines++;
+            while (next()) {
+                while (at > nextDisplay) {
+                    sb.append("D ").append(nextDisplay).append('\n');
+                    nextDisplay += displayEvery;
+                    lines++;
+                }
+                sb.append("A ").append(at).append(" J=").append(pid).append(" M=").append(mem)
+                  .append(" S=").append(devs).append(" R=").append(burst).append(" P=").append(priority);
+                // optional fields are keyed, so each is written only when set
+                if (deadline > 0) sb.append(" DL=").append(deadline);
+                if (group > 0) sb.append(" G=").append(group);
+                sb.append('\n');
+                last = at;
+                lines++;
+                if (sb.length() >= 1 << 16) {
+                    out.append(sb);
+                    sb.setLength(0);
+                }
+            }
+            sb.append("D ").append(finalDisplay(last)).append('\n');
+            out.append(sb);
+            lines++;
+        }
+        return lines;
+    }
+
+    // 999999 (the final-display time of the sample input) unless jobs may still run then
+    private long finalDisplay(long lastArrival) {
+        return Math.max(999999L, lastArrival + burstTotal + 1);
+    }
+
+    private static long[] fields(long[] f, long a, long b, long c, long d, long e, long g, long h, long k) {
+        f[0] = a; f[1] = b; f[2] = c; f[3] = d; f[4] = e; f[5] = g; f[6] = h; f[7] = k;
+        return f;
+    }
+
+    // ===== helpers =====
+
+    private static double exp(SplittableRandom r, double rate) {
+        return -Math.log(1.0 - r.nextDouble()) / Math.max(1e-12, rate);
+    }
+
+    // Box-Muller (one of the pair; keeps the generator stateless)
+    private static double gaussian(SplittableRandom r) {
+        double u = 1.0 - r.nextDouble(), v = r.nextDouble();
+        return Math.sqrt(-2 * Math.log(u)) * Math.cos(2 * Math.PI * v);
+    }
+
+    private static double[] params(String csv) {
+        if (csv.isEmpty()) return new double[0];
+        String[] p = csv.split(",");
+        double[] out = new double[p.length];
+        for (int i = 0; i < p.length; i++) out[i] = Double.parseDouble(p[i].trim());
+        return out;
+    }
+
+    public static void main(String[] args) {
+        long jobs = 1_000_000, seed = 1, memSize = 1000, displayEvery = 0;
+        int devCount = 8, cores = 1;
+        String arrival = "poisson:0.2", burst = "pareto:1.5,2", memory = "lognormal:3,1";
+        String deviceMix = "0:0.6,1:0.3,2:0.1", out = "workload.txt";
+        double p1 = 0.3, deadlineShare = 0;
+        String slack = "uniform:1.5,4", groupMix = null;
+        boolean binary = false;
+
+        for (String a : args) {
+            String v = a.substring(a.indexOf('=') + 1);
+            if (a.startsWith("--jobs="))               jobs = Long.parseLong(v);
+            else if (a.startsWith("--seed="))          seed = Long.parseLong(v);
+            else if (a.startsWith("--arrival="))       arrival = v;
+            else if (a.startsWith("--burst="))         burst = v;
+            else if (a.startsWith("--memory="))        memory = v;
+            else if (a.startsWith("--devices="))       deviceMix = v;
+            else if (a.startsWith("--p1="))            p1 = Double.parseDouble(v);
+            else if (a.startsWith("--mem="))           memSize = Long.parseLong(v);
+            else if (a.startsWith("--devs="))          devCount = Integer.parseInt(v);
+            else if (a.startsWith("--cores="))         cores = Integer.parseInt(v);
+            else if (a.startsWith("--display-every=")) displayEvery = Long.parseLong(v);
+            else if (a.startsWith("--out="))           out = v;
+            else if (a.equals("--binary"))             binary = true;
+            else if (a.startsWith("--deadlines="))     deadlineShare = Double.parseDouble(v);
+            else if (a.startsWith("--slack="))         slack = v;
+            else if (a.startsWith("--groups="))        groupMix = v;
+        }
+
+        try {
+            WorkloadGenerator g = new WorkloadGenerator(seed, jobs, arrival, burst, memory,
+                    deviceMix, p1, memSize, devCount);
+            g.setDeadlines(deadlineShare, slack);
+            g.setGroups(groupMix);
+            long t0 = System.nanoTime();
+            long n = g.write(out, binary, memSize, devCount, cores, displayEvery);
+            System.out.println("Wrote " + n + " records (" + jobs + " jobs) to " + out
+                    + " in " + (System.nanoTime() - t0) / 1_000_000 + " ms");
+        } catch (IOException e) {
+            System.out.println("File error: " + e.getMessage());
+        } catch (RuntimeException e) {
+            System.out.println("Bad option: " + e.getMessage());
+        }
+    }
+}